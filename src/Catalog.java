@@ -0,0 +1,50 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Scanner;
+
+/**
+ * This class stores every section of a course catalog. It reads the same
+ * .csv format as Schedule, but keeps each line as its own section instead
+ * of resolving time conflicts between them.
+ * @author Sandra Shtabnaya
+ */
+class Catalog {
+    private ArrayList<Section> sections = new ArrayList<>();
+
+
+    /**
+     * Constructs a new catalog.
+     * @param file the .csv file containing the catalog.
+     * @throws FileNotFoundException if the .csv file cannot be found.
+     * @throws IllegalFileFormatException if the .csv file has improper formatting.
+     */
+    Catalog(String file) throws FileNotFoundException, IllegalFileFormatException {
+        Scanner catalog = new Scanner(new File(file));
+
+        while(catalog.hasNextLine()){
+            String line = catalog.nextLine();
+
+            //skips blank lines between sections.
+            if(line.trim().isEmpty()){
+                continue;
+            }
+
+            Section section = new Section(line, sections.size());
+            try{
+                for(Course meeting : Course.parse(line)){
+                    section.addMeeting(meeting);
+                }
+            }
+            catch(IllegalFileFormatException e){
+                catalog.close();
+                throw e;
+            }
+            sections.add(section);
+        }
+        catalog.close();
+    }
+
+
+    ArrayList<Section> getSections(){ return sections; }
+}
@@ -0,0 +1,462 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Scanner;
+import java.util.function.Function;
+
+/**
+ * This class compares two versions of a course catalog section by section, and
+ * re-checks only the student schedules and rooms affected by the changes.
+ *
+ * Sections are matched by course name. Sections whose lines are identical in both
+ * versions are unchanged. Of the remaining sections of each course, a section is
+ * changed if it kept its meeting times (so it moved rooms, or changed its title or
+ * credits), or else if it kept its rooms (so it moved times). Sections that kept
+ * neither are removed from the old version and added to the new. A reverse index maps each
+ * section of the old catalog to the request files that take it, so a revision
+ * only rebuilds the schedules of the students taking a changed or removed section.
+ * @author Sandra Shtabnaya
+ */
+class CatalogDiff {
+    private ArrayList<Section> oldSections;
+    private ArrayList<Section> newSections;
+    private ArrayList<Section> added = new ArrayList<>();
+    private ArrayList<Section> removed = new ArrayList<>();
+    private HashMap<Integer, Section> changed = new HashMap<>(); //stores the new version of each changed old section.
+
+    private HashMap<String, Section> oldByLine = new HashMap<>(); //stores the old section with each line.
+    private HashMap<String, ArrayList<Section>> oldByName = new HashMap<>();
+    private HashMap<Integer, ArrayList<String>> dependents = new HashMap<>(); //stores the request files taking each old section.
+    private ArrayList<String> indexed = new ArrayList<>(); //stores the request files in the order they were indexed.
+
+
+    /**
+     * Constructs the difference between two versions of a catalog.
+     * @param oldCatalog the earlier version.
+     * @param newCatalog the revised version.
+     */
+    CatalogDiff(Catalog oldCatalog, Catalog newCatalog){
+        oldSections = oldCatalog.getSections();
+        newSections = newCatalog.getSections();
+
+        HashMap<String, ArrayList<Section>> newByName = new HashMap<>();
+        for(Section section : oldSections){
+            oldByName.computeIfAbsent(section.getName(), k -> new ArrayList<>()).add(section);
+            oldByLine.putIfAbsent(section.getLine().trim(), section);
+        }
+        for(Section section : newSections){
+            newByName.computeIfAbsent(section.getName(), k -> new ArrayList<>()).add(section);
+        }
+
+        for(String name : oldByName.keySet()){
+            compare(oldByName.get(name), newByName.getOrDefault(name, new ArrayList<>()));
+        }
+        for(String name : newByName.keySet()){
+            if(!oldByName.containsKey(name)){
+                added.addAll(newByName.get(name));
+            }
+        }
+        added.sort((first, second) -> Integer.compare(first.getNumber(), second.getNumber()));
+        removed.sort((first, second) -> Integer.compare(first.getNumber(), second.getNumber()));
+    }
+
+
+    /**
+     * This helper method compares the old and new sections of one course.
+     * @param olds the sections of the course in the old catalog.
+     * @param news the sections of the course in the new catalog.
+     */
+    private void compare(ArrayList<Section> olds, ArrayList<Section> news){
+        HashMap<String, ArrayDeque<Section>> newByLine = new HashMap<>();
+        for(Section section : news){
+            newByLine.computeIfAbsent(section.getLine().trim(), k -> new ArrayDeque<>()).add(section);
+        }
+
+        //sets aside the sections that appear unchanged in both versions.
+        ArrayList<Section> unmatched = new ArrayList<>();
+        BitSet matched = new BitSet();
+        for(Section section : olds){
+            ArrayDeque<Section> same = newByLine.get(section.getLine().trim());
+            if(same != null && !same.isEmpty()){
+                matched.set(same.poll().getNumber());
+            }
+            else{
+                unmatched.add(section);
+            }
+        }
+
+        ArrayList<Section> remaining = new ArrayList<>();
+        for(Section section : news){
+            if(!matched.get(section.getNumber())){
+                remaining.add(section);
+            }
+        }
+
+        pair(unmatched, remaining, section -> getTimes(section.getMeetings()));
+        pair(unmatched, remaining, section -> getRooms(section.getMeetings()));
+        removed.addAll(unmatched);
+        added.addAll(remaining);
+    }
+
+
+    /**
+     * This helper method pairs old and new sections that share a key as changed,
+     * removing them from both lists. Each old section is paired with the first
+     * new section with its key.
+     * @param olds the unpaired old sections of a course.
+     * @param news the unpaired new sections of the course.
+     * @param key what the sections must have in common.
+     */
+    private void pair(ArrayList<Section> olds, ArrayList<Section> news, Function<Section, String> key){
+        for(Iterator<Section> i = olds.iterator(); i.hasNext();){
+            Section section = i.next();
+            String wanted = key.apply(section);
+
+            for(int j = 0; j < news.size(); j++){
+                if(key.apply(news.get(j)).equals(wanted)){
+                    changed.put(section.getNumber(), news.remove(j));
+                    i.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * This helper method describes the meeting times of a section, such as
+     * "Monday 09:00-09:50 ..." for each meeting, including any date range.
+     * @param meetings the meetings of the section.
+     */
+    private String getTimes(ArrayList<Course> meetings){
+        String day = meetings.get(0).getDay();
+        if(day.equals("ONLINE") || day.equals("TBA")){
+            return day;
+        }
+
+        String times = "";
+        for(Course meeting : meetings){
+            times += meeting.getDay() + " " + meeting.getStartTime() + "-" + meeting.getEndTime()
+                    + " " + meeting.getStartDate() + "-" + meeting.getEndDate() + ",";
+        }
+        return times;
+    }
+
+
+    /**
+     * This helper method describes the rooms of a section, in the order they are met in.
+     * @param meetings the meetings of the section.
+     */
+    private String getRooms(ArrayList<Course> meetings){
+        String day = meetings.get(0).getDay();
+        if(day.equals("ONLINE") || day.equals("TBA")){
+            return day;
+        }
+
+        String rooms = "";
+        for(Course meeting : meetings){
+            rooms += meeting.getLocation().trim().toUpperCase() + ",";
+        }
+        return rooms;
+    }
+
+
+    /**
+     * Adds request files to the reverse index. Only the lines of each file are read.
+     * A line that can be resolved to a section of the old catalog depends on that
+     * section. A line that cannot depends on every old section of its course, so
+     * that it is reported if its course changes.
+     * @param files the request files of the students.
+     * @throws FileNotFoundException if a file cannot be found.
+     */
+    void indexRequests(ArrayList<String> files) throws FileNotFoundException {
+        for(String file : files){
+            Scanner requests = new Scanner(new File(file));
+            indexed.add(file);
+
+            while(requests.hasNextLine()){
+                String line = requests.nextLine().trim();
+                if(line.isEmpty()){
+                    continue;
+                }
+
+                Section section = resolve(line);
+                if(section != null){
+                    addDependent(section, file);
+                }
+                else{
+                    for(Section other : oldByName.getOrDefault(line.split(",")[0], new ArrayList<>())){
+                        addDependent(other, file);
+                    }
+                }
+            }
+            requests.close();
+        }
+    }
+
+
+    /**
+     * This helper method finds the section of the old catalog that a request line takes.
+     * A line that differs from every catalog line, such as in its spacing or case, is
+     * matched by its meeting times, and then by its rooms if several sections meet then.
+     * @param line the trimmed request line.
+     * @return the section, or null if the line does not match exactly one section.
+     */
+    private Section resolve(String line){
+        Section section = oldByLine.get(line);
+        if(section != null){
+            return section;
+        }
+
+        ArrayList<Course> meetings;
+        try{
+            meetings = Course.parse(line);
+        }
+        catch(IllegalFileFormatException | RuntimeException e){
+            return null;
+        }
+
+        ArrayList<Section> sameTimes = new ArrayList<>();
+        String times = getTimes(meetings);
+        for(Section other : oldByName.getOrDefault(meetings.get(0).getName(), new ArrayList<>())){
+            if(getTimes(other.getMeetings()).equals(times)){
+                sameTimes.add(other);
+            }
+        }
+        if(sameTimes.size() == 1){
+            return sameTimes.get(0);
+        }
+
+        Section found = null;
+        String rooms = getRooms(meetings);
+        for(Section other : sameTimes){
+            if(getRooms(other.getMeetings()).equals(rooms)){
+                if(found != null){
+                    return null;
+                }
+                found = other;
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * This helper method records that a request file depends on a section, once.
+     */
+    private void addDependent(Section section, String file){
+        ArrayList<String> files = dependents.computeIfAbsent(section.getNumber(), k -> new ArrayList<>());
+        if(files.isEmpty() || !files.get(files.size() - 1).equals(file)){
+            files.add(file);
+        }
+    }
+
+
+    /**
+     * Finds the request files that take a changed or removed section.
+     * @return the affected files, in the order they were indexed.
+     */
+    ArrayList<String> findAffected(){
+        HashSet<String> affected = new HashSet<>();
+        for(int number : changed.keySet()){
+            affected.addAll(dependents.getOrDefault(number, new ArrayList<>()));
+        }
+        for(Section section : removed){
+            affected.addAll(dependents.getOrDefault(section.getNumber(), new ArrayList<>()));
+        }
+
+        ArrayList<String> files = new ArrayList<>();
+        for(String file : indexed){
+            if(affected.contains(file)){
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+
+    /**
+     * Rebuilds the schedule of each affected request file with the new catalog. Lines of
+     * changed sections are replaced with their new versions and lines of removed sections
+     * are dropped. Lines of a catalog course that cannot be resolved to one of its sections
+     * are dropped as well, since their times may be out of date.
+     * @return a report for each affected file of the moved, removed and unresolved sections,
+     * and the courses that now conflict or have invalid times.
+     */
+    ArrayList<String> revalidate(){
+        ArrayList<String> reports = new ArrayList<>();
+        BitSet gone = new BitSet();
+        for(Section section : removed){
+            gone.set(section.getNumber());
+        }
+
+        for(String file : findAffected()){
+            String report = file + ":";
+            StringBuilder lines = new StringBuilder();
+
+            try{
+                Scanner requests = new Scanner(new File(file));
+                while(requests.hasNextLine()){
+                    String line = requests.nextLine().trim();
+                    if(line.isEmpty()){
+                        continue;
+                    }
+
+                    Section section = resolve(line);
+
+                    if(section == null && oldByName.containsKey(line.split(",")[0])){
+                        report += "\n    UNRESOLVED " + line;
+                        continue;
+                    }
+                    else if(section != null && changed.containsKey(section.getNumber())){
+                        line = changed.get(section.getNumber()).getLine().trim();
+                        report += "\n    MOVED " + line;
+                    }
+                    else if(section != null && gone.get(section.getNumber())){
+                        report += "\n    REMOVED " + line;
+                        continue;
+                    }
+                    lines.append(line).append('\n');
+                }
+                requests.close();
+
+                Schedule schedule = new Schedule(new Scanner(lines.toString()));
+                for(Course course : schedule.getConflictingCourses()){
+                    report += "\n    CONFLICT " + course.getName() + " with " + course.getConflict();
+                }
+                for(Course course : schedule.getInvalidCourses()){
+                    report += "\n    INVALID " + course.getName();
+                }
+            }
+            catch(FileNotFoundException | IllegalFileFormatException e){
+                report += "\n    ERROR " + e.getMessage();
+            }
+            reports.add(report);
+        }
+        return reports;
+    }
+
+
+    /**
+     * Finds the rooms booked twice at once by a changed or added section. Only the
+     * rooms those sections meet in are checked.
+     * @return a message for each pair of sections meeting in the same room at the same time.
+     */
+    ArrayList<String> findDoubleBookings(){
+        BitSet touched = new BitSet();
+        HashSet<String> rooms = new HashSet<>();
+        for(Section section : changed.values()){
+            touched.set(section.getNumber());
+        }
+        for(Section section : added){
+            touched.set(section.getNumber());
+        }
+        for(int i = touched.nextSetBit(0); i >= 0; i = touched.nextSetBit(i + 1)){
+            if(!newSections.get(i).isUnscheduled()){
+                for(Course meeting : newSections.get(i).getMeetings()){
+                    rooms.add(meeting.getLocation().trim().toUpperCase());
+                }
+            }
+        }
+
+        //groups the meetings of the new catalog in the rooms being checked.
+        HashMap<String, ArrayList<Course>> meetings = new HashMap<>();
+        HashMap<Course, Section> owners = new HashMap<>();
+        for(Section section : newSections){
+            if(section.isUnscheduled()){
+                continue;
+            }
+            for(Course meeting : section.getMeetings()){
+                String room = meeting.getLocation().trim().toUpperCase();
+                if(rooms.contains(room)){
+                    meetings.computeIfAbsent(room, k -> new ArrayList<>()).add(meeting);
+                    owners.put(meeting, section);
+                }
+            }
+        }
+
+        ArrayList<String> bookings = new ArrayList<>();
+        for(String room : meetings.keySet()){
+            ArrayList<Course> list = meetings.get(room);
+            for(int i = 0; i < list.size(); i++){
+                for(int j = i + 1; j < list.size(); j++){
+                    Section first = owners.get(list.get(i));
+                    Section second = owners.get(list.get(j));
+                    if(first != second && (touched.get(first.getNumber()) || touched.get(second.getNumber()))
+                            && list.get(i).getDay().equals(list.get(j).getDay())
+                            && (list.get(i).conflictsWith(list.get(j)) || list.get(j).conflictsWith(list.get(i)))){
+                        bookings.add("ROOM " + room + ": " + first.getName() + " and " + second.getName()
+                                + " on " + list.get(i).getDay());
+                    }
+                }
+            }
+        }
+        bookings.sort(null);
+        return bookings;
+    }
+
+    ArrayList<Section> getAdded(){ return added; }
+
+    ArrayList<Section> getRemoved(){ return removed; }
+
+    HashMap<Integer, Section> getChanged(){ return changed; }
+
+
+    /**
+     * Compares two catalogs from the command line arguments: the old catalog, the new
+     * catalog and, optionally, a directory of student request files to re-check.
+     */
+    public static void main(String args[]){
+        try{
+            Catalog oldCatalog = new Catalog(args[0]);
+            CatalogDiff diff = new CatalogDiff(oldCatalog, new Catalog(args[1]));
+
+            for(Section section : diff.getAdded()){
+                System.out.println("ADDED " + section.getLine().trim());
+            }
+            for(Section section : diff.getRemoved()){
+                System.out.println("REMOVED " + section.getLine().trim());
+            }
+            for(Section section : oldCatalog.getSections()){
+                if(diff.getChanged().containsKey(section.getNumber())){
+                    System.out.println("CHANGED " + section.getLine().trim()
+                            + "\n     TO " + diff.getChanged().get(section.getNumber()).getLine().trim());
+                }
+            }
+            for(String booking : diff.findDoubleBookings()){
+                System.out.println(booking);
+            }
+
+            if(args.length > 2){
+                File[] files = new File(args[2]).listFiles((dir, name) -> name.endsWith(".csv"));
+                if(files == null){
+                    throw new FileNotFoundException(args[2] + " is not a directory.");
+                }
+
+                ArrayList<String> requests = new ArrayList<>();
+                for(File file : files){
+                    requests.add(file.getPath());
+                }
+                requests.sort(null);
+                diff.indexRequests(requests);
+
+                for(String report : diff.revalidate()){
+                    System.out.println(report);
+                }
+            }
+        }
+        catch(FileNotFoundException e){
+            e.printStackTrace();
+            System.exit(22);
+        }
+        catch(IllegalFileFormatException e){
+            System.out.println(e.getMessage());
+            System.exit(22);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates synthetic course catalogs and student request files for scale testing.
+ * Every line follows the grammar read by Course, including multi-room locations,
+ * multiple meeting times, ONLINE and TBA courses and mixed-case am/pm. The same
+ * seed always produces the same files.
+ *
+ * Options are passed as key=value arguments:
+ * out (directory, default files/generated), seed, sections, students,
+ * perStudent (courses per request file), sectionsPerCourse, conflict (0-1, chance a
+ * section is placed in a crowded time slot), multi (0-1, chance of a second meeting
+ * time), online (0-1, chance of an ONLINE or TBA course) and invalid (0-1, chance of a
+ * time that Schedule rejects).
+ * @author Sandra Shtabnaya
+ */
+public class CatalogGenerator {
+    private static final String[] DEPARTMENTS = {"ANTH", "ARTS", "BIOL", "CHEM", "CLAS", "COMM", "CPSC", "ECON",
+            "EDUC", "ENGL", "FREN", "GEOG", "HIST", "MATH", "MUPR", "PHYS", "PSYC", "RELG", "SOCG", "SPAN"};
+    private static final String[] HALLS = {"CMBS", "HCC", "JEPS", "MELC", "MERC", "MONR", "POLL", "TRIN", "WOOD"};
+    private static final String[] WORDS = {"Intro to", "Advanced", "Topics in", "Seminar in", "Methods of",
+            "History of", "Principles of", "Studies in"};
+    private static final String[] SUBJECTS = {"Anthropology", "Photography", "Biochemistry", "Myth", "Writing",
+            "Programming", "Statistics", "Planning", "Calculus", "Physics", "Choir", "Rhetoric", "Ethics"};
+
+    //standard meeting patterns: days, start minute and length in minutes.
+    private static final String[] PATTERN_DAYS = {"MWF", "MWF", "MWF", "MWF", "MWF", "MWF", "MWF", "MWF",
+            "TR", "TR", "TR", "TR", "TR", "TR", "M", "T", "W", "R", "F", "S"};
+    private static final int[] PATTERN_START = {480, 540, 600, 660, 720, 780, 840, 900,
+            480, 570, 660, 750, 840, 930, 1140, 1140, 840, 840, 600, 540};
+    private static final int[] PATTERN_LENGTH = {50, 50, 50, 50, 50, 50, 50, 50,
+            75, 75, 75, 75, 75, 75, 165, 165, 115, 170, 110, 180};
+    static final String CATALOG_FILE = "catalog.csv"; //the name of the generated catalog, beside the request files.
+    private static final int HOT_PATTERNS = 3; //the crowded patterns sections fall into when placed as conflicts.
+
+    private Random random;
+    private int sections = 1000;
+    private int students = 100;
+    private int perStudent = 5;
+    private int sectionsPerCourse = 3;
+    private double conflict = 0.2;
+    private double multi = 0.15;
+    private double online = 0.05;
+    private double invalid = 0.02;
+    private long seed = 1;
+    private File out = new File("files/generated");
+    private ArrayList<String> catalog = new ArrayList<>(); //stores each generated catalog line.
+    private ArrayList<String> names = new ArrayList<>(); //stores the course name of each catalog line.
+
+
+    /**
+     * Constructs a CatalogGenerator from key=value options.
+     * @param args the generator options.
+     */
+    CatalogGenerator(String[] args){
+        for(String arg : args){
+            int split = arg.indexOf('=');
+            if(split < 0){
+                throw new IllegalArgumentException("Expected key=value but found " + arg);
+            }
+            String key = arg.substring(0, split);
+            String value = arg.substring(split + 1);
+
+            if(key.equals("out")){
+                out = new File(value);
+            }
+            else if(key.equals("seed")){
+                seed = Long.parseLong(value);
+            }
+            else if(key.equals("sections")){
+                sections = Integer.parseInt(value);
+            }
+            else if(key.equals("students")){
+                students = Integer.parseInt(value);
+            }
+            else if(key.equals("perStudent")){
+                perStudent = Integer.parseInt(value);
+            }
+            else if(key.equals("sectionsPerCourse")){
+                sectionsPerCourse = Math.max(1, Integer.parseInt(value));
+            }
+            else if(key.equals("conflict")){
+                conflict = Double.parseDouble(value);
+            }
+            else if(key.equals("multi")){
+                multi = Double.parseDouble(value);
+            }
+            else if(key.equals("online")){
+                online = Double.parseDouble(value);
+            }
+            else if(key.equals("invalid")){
+                invalid = Double.parseDouble(value);
+            }
+            else{
+                throw new IllegalArgumentException("Unknown option " + key);
+            }
+        }
+        random = new Random(seed);
+    }
+
+
+    /**
+     * Generates the catalog and the student request files.
+     * @throws IOException if the files cannot be written.
+     */
+    void generate() throws IOException {
+        if(!out.isDirectory() && !out.mkdirs()){
+            throw new IOException("Cannot create " + out);
+        }
+
+        generateCatalog();
+        writeLines(new File(out, CATALOG_FILE), catalog);
+
+        for(int i = 0; i < students; i++){
+            writeLines(new File(out, "student" + i + ".csv"), makeRequest());
+        }
+    }
+
+
+    /**
+     * This helper method generates every section of the catalog. Consecutive
+     * sections share a course name, so each course has several alternative sections.
+     */
+    private void generateCatalog(){
+        String name = null;
+        String title = null;
+        int credits = 3;
+
+        for(int i = 0; i < sections; i++){
+            if(i % sectionsPerCourse == 0){
+                name = makeName(i / sectionsPerCourse);
+                title = WORDS[random.nextInt(WORDS.length)] + " " + SUBJECTS[random.nextInt(SUBJECTS.length)];
+                credits = 1 + random.nextInt(4);
+            }
+            names.add(name);
+            catalog.add(makeSection(name, title, credits));
+        }
+    }
+
+
+    /**
+     * This helper method names a course from its position in the catalog, so no two
+     * courses share a name. The department cycles first, then the number from 100 to 999,
+     * then a letter suffix such as "CPSC 105B".
+     * @param course the position of the course in the catalog, starting at 0.
+     * @return the course department and number.
+     */
+    private String makeName(int course){
+        int perSuffix = DEPARTMENTS.length * 900;
+        String name = DEPARTMENTS[course % DEPARTMENTS.length] + " " + (100 + course / DEPARTMENTS.length % 900);
+
+        String suffix = "";
+        for(int letters = course / perSuffix; letters > 0; letters = (letters - 1) / 26){
+            suffix = (char) ('A' + (letters - 1) % 26) + suffix;
+        }
+        return name + suffix;
+    }
+
+
+    /**
+     * This helper method generates a single catalog line.
+     * @param name the course department and number.
+     * @param title the name of the course.
+     * @param credits the number of credit hours.
+     * @return the line describing the section.
+     */
+    private String makeSection(String name, String title, int credits){
+        String line = name + ", " + title + ", " + credits + ", ";
+
+        if(random.nextDouble() < online){
+            return line + (random.nextBoolean() ? "ONLINE" : "TBA");
+        }
+
+        int meetings = random.nextDouble() < multi ? 2 : 1;
+        String hall = HALLS[random.nextInt(HALLS.length)];
+        line += hall;
+        for(int i = 0; i < meetings; i++){
+            line += " " + (100 + random.nextInt(300));
+        }
+
+        String usedDays = ""; //stores the days of the earlier meetings, which later meetings must avoid.
+        for(int i = 0; i < meetings; i++){
+            int pattern;
+            if(random.nextDouble() < conflict){
+                pattern = random.nextInt(HOT_PATTERNS);
+            }
+            else{
+                pattern = random.nextInt(PATTERN_DAYS.length);
+            }
+
+            //keeps a section from conflicting with itself.
+            while(sharesDay(usedDays, PATTERN_DAYS[pattern])){
+                pattern = random.nextInt(PATTERN_DAYS.length);
+            }
+            usedDays += PATTERN_DAYS[pattern];
+
+            int start = PATTERN_START[pattern];
+            int end = start + PATTERN_LENGTH[pattern];
+
+            //moves the meeting before 7 AM or stretches it past five hours.
+            if(random.nextDouble() < invalid){
+                if(random.nextBoolean() || start > 1000){
+                    start = 360 + 5 * random.nextInt(12);
+                    end = start + PATTERN_LENGTH[pattern];
+                }
+                else{
+                    end = start + 300 + 5 * random.nextInt(12);
+                }
+            }
+
+            line += ", " + PATTERN_DAYS[pattern] + ", " + formatTime(start)
+                    + (random.nextBoolean() ? " - " : "-") + formatTime(end);
+        }
+        return line;
+    }
+
+
+    /**
+     * This helper method determines if two sets of meeting days share a day.
+     */
+    private boolean sharesDay(String days, String others){
+        for(int i = 0; i < others.length(); i++){
+            if(days.indexOf(others.charAt(i)) >= 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * This helper method formats a minute of the day in h:mm am/pm,
+     * choosing the case of the am/pm marker at random.
+     * @param minutes the minutes since midnight.
+     * @return the formatted time.
+     */
+    private String formatTime(int minutes){
+        minutes = minutes % (24 * 60);
+        int hour = minutes / 60;
+        String marker = hour < 12 ? "am" : "pm";
+
+        if(hour == 0){
+            hour = 12;
+        }
+        else if(hour > 12){
+            hour -= 12;
+        }
+
+        if(random.nextBoolean()){
+            marker = marker.toUpperCase();
+        }
+
+        int minute = minutes % 60;
+        return hour + ":" + (minute < 10 ? "0" : "") + minute + " " + marker;
+    }
+
+
+    /**
+     * This helper method picks the sections requested by one student,
+     * choosing at most one section of each course.
+     * @return the catalog lines of the requested sections.
+     */
+    private ArrayList<String> makeRequest(){
+        ArrayList<String> request = new ArrayList<>();
+        ArrayList<String> requestedNames = new ArrayList<>();
+        int wanted = Math.min(perStudent, sections / sectionsPerCourse);
+
+        for(int attempts = 0; request.size() < wanted && attempts < wanted * 10; attempts++){
+            int section = random.nextInt(sections);
+            if(!requestedNames.contains(names.get(section))){
+                requestedNames.add(names.get(section));
+                request.add(catalog.get(section));
+            }
+        }
+        return request;
+    }
+
+
+    /**
+     * This helper method writes lines to a file.
+     * @param file the file to write.
+     * @param lines the lines to write.
+     * @throws IOException if the file cannot be written.
+     */
+    private void writeLines(File file, ArrayList<String> lines) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        for(int i = 0; i < lines.size(); i++){
+            writer.write(lines.get(i));
+
+            //leaves out the trailing new line, which Schedule would read as an empty course.
+            if(i + 1 < lines.size()){
+                writer.newLine();
+            }
+        }
+        writer.close();
+    }
+
+
+    public static void main(String args[]){
+        try{
+            new CatalogGenerator(args).generate();
+        }
+        catch(IllegalArgumentException e){
+            System.out.println(e.getMessage());
+            System.exit(22);
+        }
+        catch(IOException e){
+            e.printStackTrace();
+            System.exit(74);
+        }
+    }
+}
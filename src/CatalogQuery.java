@@ -0,0 +1,348 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * This class searches a catalog for sections matching several conditions at once,
+ * such as "sections on TR that fit in this student's free time, in CPSC, within
+ * ten minutes' walk of TRIN, with at least three credits". Each condition is looked
+ * up in its own index as a set of section numbers, and the sets are intersected.
+ * Department, building, credits and week day sets are built once. Free time is
+ * checked with a list of each week day's meetings sorted by start time.
+ * @author Sandra Shtabnaya
+ */
+class CatalogQuery {
+    private static final String WEEK_DAY_LETTERS = "MTWRFS";
+
+    private ArrayList<Section> sections;
+    private BitSet scheduled = new BitSet(); //stores the sections with meeting times.
+    private BitSet[] days = new BitSet[Schedule.WEEK_DAYS.length]; //stores the sections meeting on each week day.
+    private HashMap<String, BitSet> departments = new HashMap<>();
+    private HashMap<String, BitSet> buildings = new HashMap<>();
+    private HashMap<Integer, BitSet> credits = new HashMap<>();
+    private HashMap<String, HashMap<String, Integer>> walkingTimes = new HashMap<>(); //stores the minutes between two buildings.
+
+    private int[][] starts = new int[Schedule.WEEK_DAYS.length][]; //stores the meeting start times of each day, in order.
+    private int[][] ends = new int[Schedule.WEEK_DAYS.length][]; //stores the end time of each meeting in starts.
+    private int[][] owners = new int[Schedule.WEEK_DAYS.length][]; //stores the section number of each meeting in starts.
+    private Course[][] meetingsByDay = new Course[Schedule.WEEK_DAYS.length][]; //stores each meeting in starts.
+    private int[] longest = new int[Schedule.WEEK_DAYS.length]; //stores the length of the longest meeting on each day.
+
+
+    /**
+     * Constructs the indexes of a catalog.
+     * @param catalog the catalog to search.
+     */
+    CatalogQuery(Catalog catalog){
+        sections = catalog.getSections();
+        ArrayList<ArrayList<int[]>> meetings = new ArrayList<>();
+        ArrayList<ArrayList<Course>> dayMeetings = new ArrayList<>();
+        for(int i = 0; i < Schedule.WEEK_DAYS.length; i++){
+            days[i] = new BitSet();
+            meetings.add(new ArrayList<>());
+            dayMeetings.add(new ArrayList<>());
+        }
+
+        for(int i = 0; i < sections.size(); i++){
+            Section section = sections.get(i);
+            index(departments, section.getName().trim().split("\\s+")[0], i);
+            credits.computeIfAbsent(section.getCredits(), k -> new BitSet()).set(i);
+
+            if(section.isUnscheduled()){
+                continue;
+            }
+            scheduled.set(i);
+
+            for(Course meeting : section.getMeetings()){
+                int day = Schedule.dayNumber(meeting.getDay());
+                int start = meeting.getStartTime().toSecondOfDay() / 60;
+                int end = meeting.getEndTime().toSecondOfDay() / 60;
+                days[day].set(i);
+                meetings.get(day).add(new int[]{start, end, i, dayMeetings.get(day).size()});
+                dayMeetings.get(day).add(meeting);
+                longest[day] = Math.max(longest[day], end - start);
+                index(buildings, getBuilding(meeting.getLocation()), i);
+            }
+        }
+
+        for(int day = 0; day < Schedule.WEEK_DAYS.length; day++){
+            ArrayList<int[]> list = meetings.get(day);
+            list.sort((first, second) -> Integer.compare(first[0], second[0]));
+            starts[day] = new int[list.size()];
+            ends[day] = new int[list.size()];
+            owners[day] = new int[list.size()];
+            meetingsByDay[day] = new Course[list.size()];
+            for(int i = 0; i < list.size(); i++){
+                starts[day][i] = list.get(i)[0];
+                ends[day][i] = list.get(i)[1];
+                owners[day][i] = list.get(i)[2];
+                meetingsByDay[day][i] = dayMeetings.get(day).get(list.get(i)[3]);
+            }
+        }
+    }
+
+
+    /**
+     * This helper method adds a section to the set stored under a key.
+     */
+    private void index(HashMap<String, BitSet> sets, String key, int section){
+        sets.computeIfAbsent(key.toUpperCase(), k -> new BitSet()).set(section);
+    }
+
+
+    /**
+     * Reads walking times between buildings from a .csv file. Each line holds two
+     * buildings and the minutes it takes to walk between them, such as "TRIN, MONR, 4".
+     * @param file the .csv file of walking times.
+     * @throws FileNotFoundException if the file cannot be found.
+     * @throws IllegalFileFormatException if a line does not hold two buildings and a number.
+     */
+    void readWalkingTimes(String file) throws FileNotFoundException, IllegalFileFormatException {
+        Scanner times = new Scanner(new File(file));
+
+        while(times.hasNextLine()){
+            String line = times.nextLine();
+            if(line.trim().isEmpty()){
+                continue;
+            }
+
+            String[] parts = line.split(",");
+            try{
+                addWalkingTime(parts[0].trim(), parts[1].trim(), Integer.parseInt(parts[2].trim()));
+            }
+            catch(ArrayIndexOutOfBoundsException | NumberFormatException e){
+                times.close();
+                throw new IllegalFileFormatException(line + " is not a valid walking time.");
+            }
+        }
+        times.close();
+    }
+
+
+    /**
+     * Sets the walking time between two buildings, in both directions.
+     * @param building the first building.
+     * @param other the second building.
+     * @param minutes the minutes it takes to walk between them.
+     */
+    void addWalkingTime(String building, String other, int minutes){
+        walkingTimes.computeIfAbsent(building.toUpperCase(), k -> new HashMap<>()).put(other.toUpperCase(), minutes);
+        walkingTimes.computeIfAbsent(other.toUpperCase(), k -> new HashMap<>()).put(building.toUpperCase(), minutes);
+    }
+
+
+    /**
+     * Finds the sections matching every given condition. Conditions that are null,
+     * or -1 for numbers, are left out.
+     * @param meetingDays the only week days the sections may meet, such as "TR".
+     * @param schedule the schedule whose free time the sections must fit in.
+     * @param department the department the sections belong to, such as "CPSC".
+     * @param building the building the sections must be near.
+     * @param walkingMinutes the most minutes the sections may be from building. Zero only
+     * allows sections in the building itself.
+     * @param minimumCredits the fewest credits the sections may be worth.
+     * @return the matching sections, in catalog order.
+     */
+    ArrayList<Section> search(String meetingDays, Schedule schedule, String department, String building,
+                              int walkingMinutes, int minimumCredits){
+        BitSet found = new BitSet();
+        found.set(0, sections.size());
+
+        if(meetingDays != null){
+            found.and(scheduled);
+            for(int day = 0; day < Schedule.WEEK_DAYS.length; day++){
+                if(meetingDays.toUpperCase().indexOf(WEEK_DAY_LETTERS.charAt(day)) < 0){
+                    found.andNot(days[day]);
+                }
+            }
+        }
+
+        if(department != null){
+            found.and(departments.getOrDefault(department.toUpperCase(), new BitSet()));
+        }
+
+        if(building != null){
+            found.and(near(building.toUpperCase(), Math.max(walkingMinutes, 0)));
+        }
+
+        if(minimumCredits >= 0){
+            BitSet enough = new BitSet();
+            for(int credit : credits.keySet()){
+                if(credit >= minimumCredits){
+                    enough.or(credits.get(credit));
+                }
+            }
+            found.and(enough);
+        }
+
+        if(schedule != null){
+            found.andNot(findBusy(schedule, found));
+        }
+
+        ArrayList<Section> matches = new ArrayList<>();
+        for(int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)){
+            matches.add(sections.get(i));
+        }
+        return matches;
+    }
+
+
+    /**
+     * This helper method finds the sections meeting in or near a building.
+     * @param building the building in question.
+     * @param minutes the most minutes the sections may be from the building.
+     * @return the sections in buildings within walking distance.
+     */
+    private BitSet near(String building, int minutes){
+        BitSet found = new BitSet();
+        if(buildings.containsKey(building)){
+            found.or(buildings.get(building));
+        }
+
+        HashMap<String, Integer> times = walkingTimes.getOrDefault(building, new HashMap<>());
+        for(String other : times.keySet()){
+            if(times.get(other) <= minutes && buildings.containsKey(other)){
+                found.or(buildings.get(other));
+            }
+        }
+        return found;
+    }
+
+
+    /**
+     * This helper method finds the candidate sections that meet while the student is in class.
+     * The sorted start times narrow the meetings down to those overlapping in time, and
+     * Course.conflictsWith then decides, so meetings in other weeks of the semester fit.
+     * Meetings of courses the schedule rejected are left out, as in ConflictRepair.
+     * @param schedule the student's schedule.
+     * @param candidates the sections still matching the other conditions.
+     * @return the candidates that do not fit in the student's free time.
+     */
+    private BitSet findBusy(Schedule schedule, BitSet candidates){
+        BitSet busy = new BitSet();
+        Schedule.Snapshot current = schedule.getSnapshot();
+        HashSet<String> rejected = new HashSet<>();
+        for(Course course : current.getConflictingCourses()){
+            rejected.add(course.getName());
+        }
+
+        for(int day = 0; day < Schedule.WEEK_DAYS.length; day++){
+            List<Course> courses = current.getDay(day);
+
+            for(Course course : courses){
+                if(rejected.contains(course.getName())){
+                    continue;
+                }
+                int start = course.getStartTime().toSecondOfDay() / 60;
+                int end = course.getEndTime().toSecondOfDay() / 60;
+
+                //only meetings starting in this range can overlap the class.
+                for(int i = firstStartingAt(day, start - longest[day]); i < starts[day].length
+                        && starts[day][i] <= end; i++){
+                    Course meeting = meetingsByDay[day][i];
+                    if(ends[day][i] >= start && candidates.get(owners[day][i]) && !busy.get(owners[day][i])
+                            && (course.conflictsWith(meeting) || meeting.conflictsWith(course))){
+                        busy.set(owners[day][i]);
+                    }
+                }
+            }
+        }
+        return busy;
+    }
+
+
+    /**
+     * This helper method finds the first meeting of a day starting at or after a time.
+     * @param day the number of the week day.
+     * @param minute the time in minutes since midnight.
+     * @return the position of the meeting in starts.
+     */
+    private int firstStartingAt(int day, int minute){
+        int low = 0;
+        int high = starts[day].length;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(starts[day][middle] < minute){
+                low = middle + 1;
+            }
+            else{
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+
+    /**
+     * This helper method returns the building of a location, such as "TRIN" for "TRIN B36".
+     */
+    private String getBuilding(String location){
+        return location.trim().split("\\s+")[0];
+    }
+
+
+    /**
+     * Searches a catalog from the command line arguments: the catalog file followed by
+     * key=value conditions. The conditions are days (such as TR), schedule (a schedule file
+     * whose free time to fill), department, building, walk (minutes from building),
+     * walking (a file of walking times) and credits (the fewest credits).
+     */
+    public static void main(String args[]){
+        try{
+            CatalogQuery query = new CatalogQuery(new Catalog(args[0]));
+            String meetingDays = null;
+            Schedule schedule = null;
+            String department = null;
+            String building = null;
+            int walk = 0;
+            int minimumCredits = -1;
+
+            for(int i = 1; i < args.length; i++){
+                String key = args[i].substring(0, Math.max(args[i].indexOf('='), 0));
+                String value = args[i].substring(args[i].indexOf('=') + 1);
+
+                if(key.equals("days")){
+                    meetingDays = value;
+                }
+                else if(key.equals("schedule")){
+                    schedule = new Schedule(value);
+                }
+                else if(key.equals("department")){
+                    department = value;
+                }
+                else if(key.equals("building")){
+                    building = value;
+                }
+                else if(key.equals("walk")){
+                    walk = Integer.parseInt(value);
+                }
+                else if(key.equals("walking")){
+                    query.readWalkingTimes(value);
+                }
+                else if(key.equals("credits")){
+                    minimumCredits = Integer.parseInt(value);
+                }
+                else{
+                    throw new IllegalArgumentException("Unknown condition " + args[i]);
+                }
+            }
+
+            for(Section section : query.search(meetingDays, schedule, department, building, walk, minimumCredits)){
+                System.out.println(section.getLine());
+            }
+        }
+        catch(FileNotFoundException e){
+            e.printStackTrace();
+            System.exit(22);
+        }
+        catch(IllegalFileFormatException | IllegalArgumentException e){
+            System.out.println(e.getMessage());
+            System.exit(22);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * This class suggests other sections to take when a course is rejected as
+ * conflicting. It looks up the sections of the rejected course, and of the courses
+ * blocking it, in an index of the catalog by course name. It then searches depth first
+ * for the fewest section swaps that fit every course into the current schedule, trying
+ * at most MAX_SWAPS swaps instead of rebuilding the schedule. The catalog index is only
+ * read, so one ConflictRepair may serve several threads at once.
+ * @author Sandra Shtabnaya
+ */
+class ConflictRepair {
+    static final int MAX_SWAPS = 3; //the most sections a suggestion may swap.
+    private HashMap<String, ArrayList<Section>> sectionsByName = new HashMap<>(); //is only read after construction.
+
+
+    /**
+     * Constructs a ConflictRepair.
+     * @param catalog the catalog containing every section of every course.
+     */
+    ConflictRepair(Catalog catalog){
+        for(Section section : catalog.getSections()){
+            sectionsByName.computeIfAbsent(section.getName(), k -> new ArrayList<>()).add(section);
+        }
+    }
+
+
+    /**
+     * Suggests a repair for each conflicting course in the schedule.
+     * @param schedule the schedule in question.
+     * @return the repairs found, leaving out courses that cannot be repaired.
+     */
+    ArrayList<Repair> suggest(Schedule schedule){
+        ArrayList<Repair> repairs = new ArrayList<>();
+        Schedule.Snapshot current = schedule.getSnapshot();
+        ArrayList<ArrayList<Course>> week = readSchedule(current);
+
+        for(Course course : current.getConflictingCourses()){
+            Repair repair = repair(course, week);
+            if(repair != null){
+                repairs.add(repair);
+            }
+        }
+        return repairs;
+    }
+
+
+    /**
+     * This helper method finds the meetings accepted by the schedule, leaving
+     * out meetings of courses that were later rejected.
+     * @param schedule the snapshot of the schedule in question.
+     * @return the accepted meetings of each week day.
+     */
+    private ArrayList<ArrayList<Course>> readSchedule(Schedule.Snapshot schedule){
+        HashSet<String> rejected = new HashSet<>();
+        for(Course course : schedule.getConflictingCourses()){
+            rejected.add(course.getName());
+        }
+
+        ArrayList<ArrayList<Course>> week = new ArrayList<>();
+        for(int i = 0; i < Schedule.WEEK_DAYS.length; i++){
+            ArrayList<Course> accepted = new ArrayList<>();
+            for(Course course : schedule.getDay(i)){
+                if(!rejected.contains(course.getName())){
+                    accepted.add(course);
+                }
+            }
+            week.add(accepted);
+        }
+        return week;
+    }
+
+
+    /**
+     * This helper method finds the repair with the fewest swaps for a rejected course.
+     * Each allowed amount of swaps is searched in turn, so the first repair found is
+     * one of the smallest.
+     * @param course the rejected course.
+     * @param week the accepted meetings of each week day.
+     * @return the repair, or null if none fits within MAX_SWAPS swaps.
+     */
+    private Repair repair(Course course, ArrayList<ArrayList<Course>> week){
+        ArrayList<Section> alternatives = sectionsByName.get(course.getName());
+        if(alternatives == null){
+            return null;
+        }
+
+        for(int limit = 1; limit <= MAX_SWAPS; limit++){
+            for(Section alternative : alternatives){
+                if(!hasValidTimes(alternative)){
+                    continue;
+                }
+
+                Repair repair = new Repair(course);
+                if(!contains(alternative, course)){
+                    repair.swap(findSection(course), alternative);
+                }
+
+                HashSet<String> removed = new HashSet<>();
+                removed.add(course.getName());
+                HashSet<String> blockers = findBlockers(alternative, removed, week);
+                removed.addAll(blockers);
+
+                Repair found = moveBlockers(repair, new ArrayList<>(blockers), removed,
+                        new ArrayList<>(alternative.getMeetings()), week, limit);
+                if(found != null && found.size() > 0){
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * This helper method searches depth first for other sections of the blocking courses
+     * that fit around each other and the rest of the schedule. A section that blocks
+     * further courses moves them as well, as long as the repair stays within the limit.
+     * @param repair the swaps made so far.
+     * @param blockers the names of the blocking courses still to be moved.
+     * @param removed the names of the courses left out of the schedule.
+     * @param added the meetings added to the schedule so far.
+     * @param week the accepted meetings of each week day.
+     * @param limit the most swaps the repair may make.
+     * @return the repair moving every blocking course, or null if there is none within the limit.
+     */
+    private Repair moveBlockers(Repair repair, ArrayList<String> blockers, HashSet<String> removed,
+                                ArrayList<Course> added, ArrayList<ArrayList<Course>> week, int limit){
+        //each blocking course still to be moved takes at least one more swap.
+        if(repair.size() + blockers.size() > limit){
+            return null;
+        }
+        if(blockers.isEmpty()){
+            return repair;
+        }
+
+        String blocker = blockers.get(0);
+        ArrayList<Section> alternatives = sectionsByName.get(blocker);
+        if(alternatives == null){
+            return null;
+        }
+
+        Course placed = findPlaced(blocker, week);
+        for(Section alternative : alternatives){
+            if(contains(alternative, placed) || !hasValidTimes(alternative) || conflictsWithAny(alternative, added)){
+                continue;
+            }
+
+            HashSet<String> displaced = findBlockers(alternative, removed, week);
+            Repair moved = repair.copy();
+            moved.swap(findSection(placed), alternative);
+
+            ArrayList<String> remaining = new ArrayList<>(blockers.subList(1, blockers.size()));
+            remaining.addAll(displaced);
+            HashSet<String> left = new HashSet<>(removed);
+            left.addAll(displaced);
+            ArrayList<Course> meetings = new ArrayList<>(added);
+            meetings.addAll(alternative.getMeetings());
+
+            Repair found = moveBlockers(moved, remaining, left, meetings, week, limit);
+            if(found != null){
+                return found;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * This helper method determines if every meeting of a section has valid times.
+     * @param section the section in question.
+     * @return whether Schedule would accept the times of each meeting.
+     */
+    private boolean hasValidTimes(Section section){
+        for(Course meeting : section.getMeetings()){
+            if(!Schedule.isValidTime(meeting)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * This helper method finds the accepted courses that conflict with a section.
+     * @param section the section in question.
+     * @param removed the names of the courses left out of the schedule.
+     * @param week the accepted meetings of each week day.
+     * @return the names of the conflicting courses.
+     */
+    private HashSet<String> findBlockers(Section section, HashSet<String> removed, ArrayList<ArrayList<Course>> week){
+        HashSet<String> blockers = new HashSet<>();
+
+        for(Course meeting : section.getMeetings()){
+            int day = Schedule.dayNumber(meeting.getDay());
+            if(day < 0){
+                continue;
+            }
+
+            for(Course lecture : week.get(day)){
+                if(!removed.contains(lecture.getName()) && !lecture.getName().equals(section.getName())
+                        && overlaps(lecture, meeting)){
+                    blockers.add(lecture.getName());
+                }
+            }
+        }
+        return blockers;
+    }
+
+
+    /**
+     * This helper method determines if any meeting of a section conflicts with the given meetings.
+     * @param section the section in question.
+     * @param meetings the meetings to check against.
+     * @return whether a meeting of the section conflicts with one of the given meetings.
+     */
+    private boolean conflictsWithAny(Section section, ArrayList<Course> meetings){
+        for(Course meeting : section.getMeetings()){
+            for(Course other : meetings){
+                if(meeting.getDay().equals(other.getDay()) && Schedule.dayNumber(meeting.getDay()) >= 0
+                        && overlaps(meeting, other)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * This helper method determines if two meetings on the same day conflict. It checks
+     * both orders, since Schedule may add the two courses in either order.
+     */
+    private boolean overlaps(Course first, Course second){
+        return first.conflictsWith(second) || second.conflictsWith(first);
+    }
+
+
+    /**
+     * This helper method determines if a section contains the given meeting.
+     * @param section the section in question.
+     * @param course the meeting in question.
+     * @return whether the section meets on the same day and at the same time. The location
+     * is not compared, since a request may list a section in a different room than the catalog.
+     */
+    private boolean contains(Section section, Course course){
+        if(course == null){
+            return false;
+        }
+
+        for(Course meeting : section.getMeetings()){
+            if(meeting.getDay().equals(course.getDay()) && meeting.getStartTime().equals(course.getStartTime())
+                    && meeting.getEndTime().equals(course.getEndTime())){
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * This helper method finds the catalog section a meeting belongs to.
+     * @param course the meeting in question.
+     * @return the section, or null if the catalog does not list it.
+     */
+    private Section findSection(Course course){
+        ArrayList<Section> sections = sectionsByName.get(course.getName());
+        if(sections != null){
+            for(Section section : sections){
+                if(contains(section, course)){
+                    return section;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * This helper method finds an accepted meeting of the given course.
+     * @param name the name of the course.
+     * @param week the accepted meetings of each week day.
+     * @return one of its meetings in the schedule.
+     */
+    private Course findPlaced(String name, ArrayList<ArrayList<Course>> week){
+        for(ArrayList<Course> day : week){
+            for(Course course : day){
+                if(course.getName().equals(name)){
+                    return course;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * This class stores the section swaps that fit a rejected course into the schedule.
+     */
+    static class Repair {
+        private Course course;
+        private ArrayList<Section> dropped = new ArrayList<>();
+        private ArrayList<Section> taken = new ArrayList<>();
+
+        Repair(Course course){
+            this.course = course;
+        }
+
+        Repair copy(){
+            Repair repair = new Repair(course);
+            repair.dropped.addAll(dropped);
+            repair.taken.addAll(taken);
+            return repair;
+        }
+
+        void swap(Section drop, Section take){
+            dropped.add(drop);
+            taken.add(take);
+        }
+
+        int size(){ return taken.size(); }
+
+        Course getCourse(){ return course; }
+
+        ArrayList<Section> getDropped(){ return dropped; }
+
+        ArrayList<Section> getTaken(){ return taken; }
+
+        public String toString(){
+            String suggestion = "To add " + course.getName() + ":";
+            for(int i = 0; i < taken.size(); i++){
+                suggestion += "\n    take " + taken.get(i).getLine().trim();
+                if(dropped.get(i) != null){
+                    suggestion += "\n    instead of " + dropped.get(i).getLine().trim();
+                }
+            }
+            return suggestion;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 
@@ -10,7 +12,9 @@ import java.time.format.DateTimeFormatterBuilder;
 * @author Sandra Shtabnaya
 */
 public class Course implements Comparable<Course>, Cloneable{
-	private DateTimeFormatter dtf = new DateTimeFormatterBuilder().appendPattern("h:mm a").toFormatter(); // accepts am/pm time format.
+	private static final DateTimeFormatter dtf = new DateTimeFormatterBuilder().appendPattern("h:mm a").toFormatter(); // accepts am/pm time format.
+	private static final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("M/d/yyyy"); // accepts month/day/year dates.
+	private static final int MAX_WEEKS = 64; //the most weeks a date range may span, one for each bit of weeks.
 	private LocalTime startTime;
 	private LocalTime endTime;
 	private int credits;
@@ -21,18 +25,60 @@ public class Course implements Comparable<Course>, Cloneable{
 	private String conflictingCourse; //the name of the course it conflicts with.
 	private String day;
 	private int differingTimes; //stores the amount of different meeting times.
-	private Schedule schedule; //the schedule the course belongs to.
+	private ArrayList<Course> meetings = new ArrayList<>(); //stores a course for each meeting day read from the line.
+	private LocalDate startDate; //the first date the course meets, if it does not meet all semester.
+	private LocalDate endDate; //the last date the course meets, if it does not meet all semester.
+	private int firstWeek; //the first week the course meets, counted in weeks since 1970.
+	private long weeks = -1; //stores a bit for each week the course meets, starting with firstWeek.
 
 
 	/**
-	 * Creates a new course from a schedule file.
+	 * Creates a new course from a schedule file and adds each of its meetings to the schedule.
 	 * @param file the Scanner reading the .csv file.
 	 * @param sch the Schedule the course belongs to.
 	 * @throws IllegalFileFormatException if the schedule file has improper formatting.
 	 */
 	public Course(Scanner file, Schedule sch) throws IllegalFileFormatException {
-		schedule = sch;
-		String line = file.nextLine();
+		try{
+			readLine(file.nextLine());
+		}
+		catch(IllegalFileFormatException e){
+			file.close();
+			throw e;
+		}
+
+		sch.addCourses(meetings);
+	}
+
+
+	/**
+	 * Creates a new course from a single line of a schedule file.
+	 * @param line the line containing the course information.
+	 * @throws IllegalFileFormatException if the line has improper formatting.
+	 */
+	private Course(String line) throws IllegalFileFormatException {
+		readLine(line);
+	}
+
+
+	/**
+	 * Reads a line of a schedule file without adding it to a schedule,
+	 * such as a line of a course catalog.
+	 * @param line the line containing the course information.
+	 * @return a course for each meeting day of the line.
+	 * @throws IllegalFileFormatException if the line has improper formatting.
+	 */
+	static ArrayList<Course> parse(String line) throws IllegalFileFormatException {
+		return new Course(line).meetings;
+	}
+
+
+	/**
+	 * This helper method checks the amount of commas in a line and reads its meetings.
+	 * @param line the line containing the course information.
+	 * @throws IllegalFileFormatException if the line has improper formatting.
+	 */
+	private void readLine(String line) throws IllegalFileFormatException {
 		differingTimes = countMeetingTimes(line);
 
 		//if the given class has a single meeting time.
@@ -42,12 +88,10 @@ public class Course implements Comparable<Course>, Cloneable{
 
 		if((line.toUpperCase().contains("ONLINE") || line.toUpperCase().contains("TBA"))
 				&& differingTimes != -2){
-			file.close();
 			throw new IllegalFileFormatException("Check commas.");
 		}
 		else if(differingTimes < 0 && (!line.toUpperCase().contains("ONLINE")
 				&& !line.toUpperCase().contains("TBA"))){
-			file.close();
 			throw new IllegalFileFormatException("Check commas.");
 		}
 
@@ -108,13 +152,13 @@ public class Course implements Comparable<Course>, Cloneable{
 		if(locations.get(0).toUpperCase().equals("ONLINE")){
 			courseTitle += " ONLINE";
 			day = "ONLINE";
-			schedule.addCourse(this);
+			meetings.add(this);
 			return;
 		}
 		else if(locations.get(0).toUpperCase().equals("TBA")){
 			courseTitle += " TBA";
 			day = "TBA";
-			schedule.addCourse(this);
+			meetings.add(this);
 			return;
 		}
 
@@ -140,19 +184,21 @@ public class Course implements Comparable<Course>, Cloneable{
 			meetingDays = file.next().trim();
 			startTime = file.next().trim().toUpperCase();
 			endTime = file.next().trim().toUpperCase();
+			meetingDays = parseDates(meetingDays);
 
 			//while the meetingDays string has more week days
 			while (meetingDays.length() > 0) {
 
 				//gets the first character in dates.
 				setDay(chopMeetingDays(meetingDays));
+				setWeeks(chopMeetingDays(meetingDays));
 				this.startTime = LocalTime.parse(startTime, dtf);
 				this.endTime = LocalTime.parse(endTime, dtf);
 				location = locations.get(0);
 
-				//adds the course to the schedule.
+				//adds a copy of the course for this meeting day.
 				try{
-					schedule.addCourse((Course) this.clone());
+					meetings.add((Course) this.clone());
 				}
 				catch(CloneNotSupportedException e){}
 
@@ -173,6 +219,106 @@ public class Course implements Comparable<Course>, Cloneable{
 	}
 
 
+	/**
+	 * This helper method reads the optional date range following the meeting
+	 * days, such as "TR 1/13/2025 3/7/2025", for courses that do not meet all semester.
+	 * @param meetingDays the meeting days, followed by the first and last dates if applicable.
+	 * @return the meeting days without the date range.
+	 * @throws IllegalFileFormatException if the dates are invalid, or span more than MAX_WEEKS weeks.
+	 */
+	private String parseDates(String meetingDays) throws IllegalFileFormatException{
+		String[] parts = meetingDays.split("\\s+");
+		startDate = null;
+		endDate = null;
+
+		if(parts.length == 1){
+			return meetingDays;
+		}
+		else if(parts.length != 3){
+			throw new IllegalFileFormatException("For " + courseName + ": " + meetingDays + " is not a valid date range.");
+		}
+
+		try{
+			startDate = LocalDate.parse(parts[1], dateFormat);
+			endDate = LocalDate.parse(parts[2], dateFormat);
+		}
+		catch(DateTimeParseException e){
+			throw new IllegalFileFormatException("For " + courseName + ": " + meetingDays + " is not a valid date range.");
+		}
+
+		if(endDate.isBefore(startDate)){
+			throw new IllegalFileFormatException("For " + courseName + ": " + meetingDays + " ends before it begins.");
+		}
+
+		//counts the weeks from the one holding the first date to the one holding the last date.
+		long spanned = Math.floorDiv(endDate.toEpochDay() + 3, 7) - Math.floorDiv(startDate.toEpochDay() + 3, 7) + 1;
+		if(spanned > MAX_WEEKS){
+			throw new IllegalFileFormatException("For " + courseName + ": " + meetingDays + " spans more than "
+					+ MAX_WEEKS + " weeks.");
+		}
+		return parts[0];
+	}
+
+
+	/**
+	 * This helper method marks the weeks in which the course meets on the
+	 * given day, between its start and end dates. Courses without dates meet every week.
+	 * Date ranges span at most MAX_WEEKS weeks, so every week fits in the bitset.
+	 * @param date the first letter of the week day, with Thursday denoted as "R."
+	 */
+	private void setWeeks(char date){
+		if(startDate == null){
+			weeks = -1;
+			return;
+		}
+
+		//the number of days the meeting day falls after Monday.
+		int dayOffset = "MTWRFS".indexOf(date);
+		long start = startDate.toEpochDay();
+		long end = endDate.toEpochDay();
+		long week = Math.floorDiv(start + 3, 7); //1970-01-01 falls on the Thursday of week 0.
+		weeks = 0;
+		firstWeek = Integer.MIN_VALUE;
+
+		for(; week * 7 - 3 <= end; week++){
+			long meetingDay = week * 7 - 3 + dayOffset;
+
+			if(meetingDay >= start && meetingDay <= end){
+				if(firstWeek == Integer.MIN_VALUE){
+					firstWeek = Math.toIntExact(week);
+				}
+				weeks |= 1L << (week - firstWeek);
+			}
+		}
+	}
+
+
+	/**
+	 * Determines if this course and the given course meet during a common week.
+	 * It compares the two week bitsets after aligning them to the same first week,
+	 * so no individual dates are checked.
+	 * @param course the course in question.
+	 * @return whether both courses meet during at least one of the same weeks.
+	 */
+	boolean sharesWeek(Course course){
+		//courses without dates meet every week.
+		if(startDate == null){
+			return course.startDate == null || course.weeks != 0;
+		}
+		else if(course.startDate == null){
+			return weeks != 0;
+		}
+
+		long shift = (long) course.firstWeek - firstWeek;
+		if(shift >= 64 || shift <= -64){
+			return false;
+		}
+
+		long aligned = shift >= 0 ? course.weeks << shift : course.weeks >>> -shift;
+		return (weeks & aligned) != 0;
+	}
+
+
 	/**
 	 * This helper method takes in the meeting days of the
 	 * course corresponding to a class time. Each character
@@ -239,6 +385,7 @@ public class Course implements Comparable<Course>, Cloneable{
 
 	/**
 	 * Determines whether the passed course conflicts with this course.
+	 * Neither course is changed, so it is safe to call from any thread.
 	 * @param course the course in question.
 	 * @return whether a time conflict exists between the passed course
 	 * and this course.
@@ -246,6 +393,11 @@ public class Course implements Comparable<Course>, Cloneable{
 	boolean conflictsWith(Course course) {
 		boolean conflicting = false;
 
+		//courses meeting in different weeks of the semester never conflict.
+		if(!sharesWeek(course)){
+			return false;
+		}
+
 		//stores the details of the class we are attempting to add
 		LocalTime addingStartTime = course.getStartTime();
 		LocalTime addingEndTime = course.getEndTime();
@@ -274,12 +426,6 @@ public class Course implements Comparable<Course>, Cloneable{
 			conflicting = true;
 		}
 
-		//if there is a conflict, stores the name of the
-		//this class in the conflicting course.
-		if (conflicting) {
-			course.setConflict(courseName);
-		}
-
 		return conflicting;
 	}
 
@@ -289,7 +435,7 @@ public class Course implements Comparable<Course>, Cloneable{
 	 * current class conflicts with, if there is a time conflict.
 	 * @param name the name of the class this course conflicts with.
 	 */
-	private void setConflict(String name){
+	void setConflict(String name){
 		conflictingCourse = name;
 	}
 
@@ -336,6 +482,10 @@ public class Course implements Comparable<Course>, Cloneable{
 	String getDay(){
 		return day;
 	}
+
+	LocalDate getStartDate(){ return startDate; }
+
+	LocalDate getEndDate(){ return endDate; }
 	
 	public String toString(){
 		return courseName + " - " + courseTitle;
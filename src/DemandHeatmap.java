@@ -0,0 +1,237 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class aggregates the demand of many student request files. It counts
+ * how many students want to be in class on each week day during each five minute
+ * slot, and how many students requested each course compared to how many had it
+ * rejected as conflicting. Each thread counts into its own arrays, which are
+ * added together once every file has been read.
+ * @author Sandra Shtabnaya
+ */
+public class DemandHeatmap {
+    static final int SLOT_LENGTH = 5; //the amount of minutes in each slot.
+    static final int SLOTS = 24 * 60 / SLOT_LENGTH;
+    private long[][] slots = new long[Schedule.WEEK_DAYS.length][SLOTS]; //stores the amount of students in class during each slot.
+    private TreeMap<String, long[]> courses = new TreeMap<>(); //stores the requested and rejected counts of each course.
+    private ArrayList<String> skipped = new ArrayList<>(); //stores the messages of files that could not be read.
+    private int students;
+
+
+    /**
+     * Reads every request file, spreading the files across threads.
+     * @param files the request files to read.
+     * @param threads the amount of threads to read with.
+     * @throws InterruptedException if the reading is interrupted.
+     */
+    void aggregate(ArrayList<String> files, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<Counts>> results = new ArrayList<>();
+
+        for(int i = 0; i < threads; i++){
+            int first = i;
+            results.add(pool.submit(() -> {
+                Counts counts = new Counts();
+                for(int j = first; j < files.size(); j += threads){
+                    counts.read(files.get(j));
+                }
+                return counts;
+            }));
+        }
+
+        try{
+            for(Future<Counts> result : results){
+                merge(result.get());
+            }
+        }
+        catch(ExecutionException e){
+            throw new IllegalStateException(e.getCause());
+        }
+        finally{
+            pool.shutdown();
+        }
+    }
+
+
+    /**
+     * This helper method adds the counts of one thread to the totals.
+     * @param counts the counts of one thread.
+     */
+    private void merge(Counts counts){
+        for(int day = 0; day < Schedule.WEEK_DAYS.length; day++){
+            for(int slot = 0; slot < SLOTS; slot++){
+                slots[day][slot] += counts.slots[day][slot];
+            }
+        }
+
+        for(String name : counts.courses.keySet()){
+            int[] count = counts.courses.get(name);
+            long[] total = courses.computeIfAbsent(name, k -> new long[2]);
+            total[0] += count[0];
+            total[1] += count[1];
+        }
+
+        students += counts.students;
+        skipped.addAll(counts.skipped);
+    }
+
+
+    /**
+     * Writes the heatmap. Each week day has a line with its name followed by the amount
+     * of students in class during each five minute slot, starting at midnight. A line
+     * with the course name, requests and rejections follows for each course.
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(String file) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        writer.write("STUDENTS," + students);
+        writer.newLine();
+
+        for(int day = 0; day < Schedule.WEEK_DAYS.length; day++){
+            writer.write(Schedule.WEEK_DAYS[day]);
+            for(int slot = 0; slot < SLOTS; slot++){
+                writer.write(",");
+                writer.write(String.valueOf(slots[day][slot]));
+            }
+            writer.newLine();
+        }
+
+        for(String name : courses.keySet()){
+            long[] count = courses.get(name);
+            writer.write("COURSE," + name + "," + count[0] + "," + count[1]);
+            writer.newLine();
+        }
+        writer.close();
+    }
+
+    long[][] getSlots(){ return slots; }
+
+    TreeMap<String, long[]> getCourses(){ return courses; }
+
+    ArrayList<String> getSkipped(){ return skipped; }
+
+    int getStudents(){ return students; }
+
+
+    /**
+     * This class stores the counts of the files read by a single thread.
+     */
+    private static class Counts {
+        int[][] slots = new int[Schedule.WEEK_DAYS.length][SLOTS];
+        HashMap<String, int[]> courses = new HashMap<>();
+        ArrayList<String> skipped = new ArrayList<>();
+        int students;
+
+        /**
+         * Reads one student's request file.
+         * @param file the request file.
+         */
+        void read(String file){
+            Catalog request;
+            try{
+                request = new Catalog(file);
+            }
+            catch(FileNotFoundException | IllegalFileFormatException e){
+                skipped.add(file + ": " + e.getMessage());
+                return;
+            }
+
+            //a malformed file, such as one with an unreadable time, must not stop the others.
+            catch(RuntimeException e){
+                skipped.add(file + ": FILE FORMATTING ERROR: " + e);
+                return;
+            }
+
+            //resolves the conflicts between the requested courses,
+            //and marks each slot the student wants to be in class.
+            Schedule schedule = new Schedule();
+            boolean[][] busy = new boolean[Schedule.WEEK_DAYS.length][SLOTS];
+            HashSet<String> requested = new HashSet<>();
+
+            for(Section section : request.getSections()){
+                requested.add(section.getName());
+                schedule.addCourses(section.getMeetings());
+
+                for(Course meeting : section.getMeetings()){
+                    int day = Schedule.dayNumber(meeting.getDay());
+                    if(day < 0){
+                        continue;
+                    }
+
+                    int start = meeting.getStartTime().toSecondOfDay() / 60;
+                    int end = meeting.getEndTime().toSecondOfDay() / 60;
+                    for(int slot = start / SLOT_LENGTH; slot < (end + SLOT_LENGTH - 1) / SLOT_LENGTH; slot++){
+                        busy[day][slot] = true;
+                    }
+                }
+            }
+
+            for(int day = 0; day < Schedule.WEEK_DAYS.length; day++){
+                for(int slot = 0; slot < SLOTS; slot++){
+                    if(busy[day][slot]){
+                        slots[day][slot]++;
+                    }
+                }
+            }
+
+            for(String name : requested){
+                courses.computeIfAbsent(name, k -> new int[2])[0]++;
+            }
+            for(Course rejected : schedule.getConflictingCourses()){
+                courses.computeIfAbsent(rejected.getName(), k -> new int[2])[1]++;
+            }
+            students++;
+        }    }
+
+
+    /**
+     * Builds a heatmap from the command line arguments: the directory of
+     * request files, the heatmap file to write and optionally the number of threads.
+     */
+    public static void main(String args[]){
+        try{
+            File[] found = new File(args[0]).listFiles();
+            if(found == null){
+                throw new FileNotFoundException(args[0] + " is not a directory.");
+            }
+
+            //leaves out the heatmap itself and the catalog written beside generated request files.
+            ArrayList<String> files = new ArrayList<>();
+            String output = new File(args[1]).getCanonicalPath();
+            for(File file : found){
+                if(file.getName().endsWith(".csv") && !file.getName().equals(CatalogGenerator.CATALOG_FILE)
+                        && !file.getCanonicalPath().equals(output)){
+                    files.add(file.getPath());
+                }
+            }
+
+            int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            DemandHeatmap heatmap = new DemandHeatmap();
+            heatmap.aggregate(files, threads);
+            heatmap.write(args[1]);
+
+            for(String message : heatmap.getSkipped()){
+                System.out.println(message);
+            }
+        }
+        catch(IOException e){
+            e.printStackTrace();
+            System.exit(74);
+        }
+        catch(InterruptedException e){
+            System.exit(1);
+        }
+    }
+}
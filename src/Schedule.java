@@ -4,21 +4,34 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
 import java.io.File;
 import java.util.Collections;
 
 /**
  * This class stores attributes of a weekly schedule.
+ * Courses are added and dropped by one thread at a time. After each course line is
+ * added, or a course is dropped, the schedule publishes a read-only Snapshot, copying
+ * only the lists that changed. Any number of threads may read the latest snapshot
+ * without locking, and never see a course that is only partly added or dropped.
  * @author Sandra Shtabnaya
  */
 public class Schedule {
+    private static final int CLASSES = 1 << 7; //marks the classes as changed. Bits 0 to 6 mark the week days.
+    private static final int CONFLICTS = 1 << 8;
+    private static final int INVALID = 1 << 9;
+    static final String[] WEEK_DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"}; //the week days, starting with Monday as 0.
     DateTimeFormatter dtf = new DateTimeFormatterBuilder().appendPattern("h:mm a").toFormatter(); // accepts am/pm time format.
     private ArrayList<ArrayList<Course>> week = new ArrayList<>(); //stores all the classes in a week.
     private ArrayList<Course> conflictingCourses = new ArrayList<>(); //stores all the conflicting classes in the file.
     private ArrayList<Course> invalidCourses = new ArrayList<>(); //stores all classes with invalid descriptions.
     private ArrayList<Course> classes = new ArrayList<>();
     private int credits = 0;
+    private int changed; //stores a bit for each list changed since the last snapshot.
+    private boolean loading; //stores whether the schedule is still being read by its constructor.
+    private volatile int resolution = 5; //stores the amount of minutes each dot in the timeline represents.
+    private volatile Snapshot snapshot; //stores the latest published state of the schedule.
 
 
     /**
@@ -28,27 +41,42 @@ public class Schedule {
      * @throws IllegalFileFormatException if the .csv file has improper formatting.
      */
     Schedule(String file) throws FileNotFoundException, IllegalFileFormatException {
-        for(int i = 0; i < 7; i++){
-            week.add(new ArrayList<>());
-        }
-
-        readSchedule(file);
+        this(new Scanner(new File(file)));
     }
 
 
     /**
-     * This helper method reads in the .csv file containing the schedule information.
-     * @param fileName the name of the schedule file.
-     * @throws FileNotFoundException if the .csv file cannot be found in the files directory.
-     * @throws IllegalFileFormatException if the .csv file has improper formatting.
+     * Constructs a new schedule from the lines of a .csv file, such as
+     * a schedule received from another program.
+     * @param file the Scanner reading the schedule information.
+     * @throws IllegalFileFormatException if the schedule has improper formatting.
      */
-    private void readSchedule(String fileName) throws FileNotFoundException, IllegalFileFormatException {
-        Scanner file = new Scanner(new File(fileName));
+    Schedule(Scanner file) throws IllegalFileFormatException {
+        this();
 
+        //no other thread can see the schedule yet, so it is published once at the end.
+        loading = true;
         while(file.hasNextLine()) {
             new Course(file, this);
         }
         file.close();
+        loading = false;
+        publish();
+    }
+
+
+    /**
+     * Constructs an empty schedule.
+     */
+    Schedule(){
+        ArrayList<List<Course>> days = new ArrayList<>();
+        for(int i = 0; i < 7; i++){
+            week.add(new ArrayList<>());
+            days.add(Collections.emptyList());
+        }
+
+        snapshot = new Snapshot(Collections.unmodifiableList(days), Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), 0);
     }
 
 
@@ -57,7 +85,33 @@ public class Schedule {
      * It also updates the credit count.
      * @param course the course to add.
      */
-    void addCourse(Course course){
+    synchronized void addCourse(Course course){
+        add(course);
+        publish();
+    }
+
+
+    /**
+     * Adds every meeting of a course line to the schedule, publishing
+     * a single snapshot once all of them are added.
+     * @param meetings a course for each meeting day of the line.
+     */
+    synchronized void addCourses(List<Course> meetings){
+        for(Course course : meetings){
+            add(course);
+        }
+        if(!loading){
+            publish();
+        }
+    }
+
+
+    /**
+     * This helper method adds a non-conflicting course to the schedule
+     * without publishing it.
+     * @param course the course to add.
+     */
+    private void add(Course course){
 
         //checks to see if the class times are valid
         if(!hasValidTime(course)){
@@ -68,6 +122,7 @@ public class Schedule {
             credits += course.getCredits();
         }
         classes.add(course);
+        changed |= CLASSES;
         String day = course.getDay();
 
         if(day.equals("ONLINE") || day.equals("TBA")){
@@ -98,9 +153,102 @@ public class Schedule {
         else{
             if(isNew(course, conflictingCourses)){
                 conflictingCourses.add(course);
+                changed |= CONFLICTS;
             }
             removeConflictingCourses(course);
+            return;
+        }
+
+        changed |= 1 << dayNumber(day);
+    }
+
+
+    /**
+     * Drops a course from the schedule, removing all of its meetings
+     * and its credits.
+     * @param name the name of the course to drop.
+     */
+    synchronized void dropCourse(String name){
+        for(int i = 0; i < week.size(); i++){
+            if(week.get(i).removeIf(lecture -> lecture.getName().equals(name))){
+                changed |= 1 << i;
+            }
+        }
+
+        for(Course lecture : classes){
+            if(lecture.getName().equals(name)){
+                credits -= lecture.getCredits();
+                break;
+            }
+        }
+        if(classes.removeIf(lecture -> lecture.getName().equals(name))){
+            changed |= CLASSES;
+        }
+        if(conflictingCourses.removeIf(lecture -> lecture.getName().equals(name))){
+            changed |= CONFLICTS;
+        }
+        if(invalidCourses.removeIf(lecture -> lecture.getName().equals(name))){
+            changed |= INVALID;
+        }
+        publish();
+    }
+
+
+    /**
+     * This helper method publishes a new snapshot of the schedule. Only the lists marked
+     * as changed are copied; the others are shared with the previous snapshot.
+     */
+    private void publish(){
+        Snapshot previous = snapshot;
+        List<List<Course>> days = previous.days;
+
+        if((changed & (CLASSES - 1)) != 0){
+            ArrayList<List<Course>> copy = new ArrayList<>(days);
+            for(int i = 0; i < week.size(); i++){
+                if((changed & 1 << i) != 0){
+                    ArrayList<Course> sorted = new ArrayList<>(week.get(i));
+                    Collections.sort(sorted);
+                    copy.set(i, Collections.unmodifiableList(sorted));
+                }
+            }
+            days = Collections.unmodifiableList(copy);
+        }
+
+        snapshot = new Snapshot(days, copyIf(CLASSES, previous.classes, classes),
+                copyIf(CONFLICTS, previous.conflictingCourses, conflictingCourses),
+                copyIf(INVALID, previous.invalidCourses, invalidCourses), credits);
+        changed = 0;
+    }
+
+
+    /**
+     * This helper method copies a list if it is marked as changed.
+     * @param bit the bit marking the list as changed.
+     * @param published the copy in the previous snapshot.
+     * @param current the list in question.
+     * @return the published copy if it is unchanged, or a read-only copy of the list.
+     */
+    private List<Course> copyIf(int bit, List<Course> published, ArrayList<Course> current){
+        if((changed & bit) == 0){
+            return published;
+        }
+        return Collections.unmodifiableList(new ArrayList<>(current));
+    }
+
+
+    /**
+     * Returns the number of a week day.
+     * @param day the name of the week day.
+     * @return the number of the day, starting with Monday as 0, or -1 if it is not a week
+     * day, such as for online and TBA courses.
+     */
+    static int dayNumber(String day){
+        for(int i = 0; i < WEEK_DAYS.length; i++){
+            if(WEEK_DAYS[i].equals(day)){
+                return i;
+            }
         }
+        return -1;
     }
 
 
@@ -114,6 +262,7 @@ public class Schedule {
             if(course.getName().equals(event.getName())){
                 credits -= course.getCredits();
                 i.remove();
+                changed |= CLASSES;
             }
         }
     }
@@ -135,9 +284,11 @@ public class Schedule {
             return true;
         }
 
-        //goes through each class in the weekday
+        //goes through each class in the weekday, storing
+        //the name of the first conflicting class in the event.
         for(Course lecture: weekDay){
             if(lecture.conflictsWith(event)){
+                event.setConflict(lecture.getName());
                 return true;
             }
         }
@@ -147,15 +298,32 @@ public class Schedule {
 
 
     /**
-     * This helper method determines if the given class times are valid.
+     * This helper method determines if the given class times are valid,
+     * recording the course as invalid if they are not.
+     * @param event the course in question.
+     * @return whether the class times are valid.
+     */
+    private boolean hasValidTime(Course event){
+        boolean isValid = isValidTime(event);
+
+        if(!isValid && isNew(event, invalidCourses)){
+            invalidCourses.add(event);
+            changed |= INVALID;
+        }
+
+        return isValid;
+    }
+
+
+    /**
+     * Determines if the given class times are valid.
      * @param event the course in question.
      * @return if the class doesn't last for more than five hours or
      * doesn't start after 11 PM and before 7 AM.
      */
-    private boolean hasValidTime(Course event){
-        boolean isValid = true;
-        LocalTime lateClass = LocalTime.parse("11:00 PM", dtf);
-        LocalTime earlyClass = LocalTime.parse("7:00 AM", dtf);
+    static boolean isValidTime(Course event){
+        LocalTime lateClass = LocalTime.of(23, 0);
+        LocalTime earlyClass = LocalTime.of(7, 0);
         LocalTime addingStartTime = event.getStartTime();
 
         if(event.getDay().equals("ONLINE") || event.getDay().equals("TBA")){
@@ -163,18 +331,10 @@ public class Schedule {
         }
 
         if(event.length() >= 60){
-            isValid = false;
+            return false;
         }
-        else if((addingStartTime.isAfter(lateClass) || addingStartTime.equals(lateClass)) ||
-                (addingStartTime.isBefore(earlyClass) || addingStartTime.equals(earlyClass))){
-            isValid = false;
-        }
-
-        if(!isValid && isNew(event, invalidCourses)){
-            invalidCourses.add(event);
-        }
-
-        return isValid;
+        return !((addingStartTime.isAfter(lateClass) || addingStartTime.equals(lateClass)) ||
+                (addingStartTime.isBefore(earlyClass) || addingStartTime.equals(earlyClass)));
     }
 
 
@@ -200,20 +360,23 @@ public class Schedule {
      * This helper method generates a report to append to the
      * end of the schedule. It makes a list of all the added classes
      * and the total number of credits.
+     * @param current the snapshot of the schedule to report on.
      */
-    private String getReport(){
+    private String getReport(Snapshot current){
         String report = "";
+        List<Course> conflictingCourses = current.getConflictingCourses();
+        List<Course> invalidCourses = current.getInvalidCourses();
 
         //provides a summary of the classes added and the total credits.
         report += "----SUMMARY---------------------------\n";
-        for(Course event : classes){
+        for(Course event : current.getClasses()){
             //checks to see if the class has already been entered in the report.
             if(report.contains(event.getTitle())){
                 continue;
             }
             report += event.toString() + "\n";
         }
-        report += "Total Credits: " + credits + "\n";
+        report += "Total Credits: " + current.getCredits() + "\n";
 
         //provides a summary of invalid classes due to a time conflict.
         if(conflictingCourses.size() > 0){
@@ -236,6 +399,41 @@ public class Schedule {
     }
 
 
+    /**
+     * Returns the latest published state of the schedule. The snapshot never
+     * changes, so it may be read by any thread while courses are added or dropped.
+     * @return the snapshot of the schedule.
+     */
+    Snapshot getSnapshot(){ return snapshot; }
+
+
+    /**
+     * Returns the courses accepted on a given day, sorted by start time.
+     * @param day the number of the day of the week, starting with Monday as 0.
+     * @return the non-conflicting courses meeting on the given day.
+     */
+    List<Course> getDay(int day){ return snapshot.getDay(day); }
+
+    /**
+     * Sets the time resolution of the visual representation.
+     * @param resolution the amount of minutes each dot represents, either 1, 5 or 15.
+     */
+    void setResolution(int resolution){
+        if(resolution != 1 && resolution != 5 && resolution != 15){
+            throw new IllegalArgumentException(resolution + " minutes is not a valid time resolution.");
+        }
+        this.resolution = resolution;
+    }
+
+    List<Course> getClasses(){ return snapshot.getClasses(); }
+
+    List<Course> getConflictingCourses(){ return snapshot.getConflictingCourses(); }
+
+    List<Course> getInvalidCourses(){ return snapshot.getInvalidCourses(); }
+
+    int getCredits(){ return snapshot.getCredits(); }
+
+
     /**
      * Returns the visual representation of the schedule.
      * @return the time line for each day, including the time between classes,
@@ -243,16 +441,16 @@ public class Schedule {
      */
     public String toString(){
         String display = "\n";
-        SchedulePrinter printer = new SchedulePrinter();
+        SchedulePrinter printer = new SchedulePrinter(resolution);
+        Snapshot current = snapshot;
 
         //goes through each day in the week.
         for(int i = 0; i < 6; i++){
+            List<Course> courses = current.getDay(i);
 
             //prints out the day only if it contains classes.
-            if(week.get(i).size() > 0){
+            if(courses.size() > 0){
 
-                ArrayList<Course> courses = week.get(i);
-                Collections.sort(courses);
                 Course earliest = courses.get(0);
                 Course latest = courses.get(courses.size() - 1);
 
@@ -267,10 +465,14 @@ public class Schedule {
                     Course event = courses.get(j);
                     display += printer.makeTimelineFor(event);
 
-                    //finds the next course in the week's schedule, if applicable.
+                    //finds the next course in the week's schedule, if applicable. Courses
+                    //meeting in other weeks of the semester, such as the other half of a
+                    //split term, are skipped since the student never walks between them.
                     Course next = null;
-                    if(j + 1 < courses.size()){
-                        next = courses.get(j + 1);
+                    for(int k = j + 1; k < courses.size() && next == null; k++){
+                        if(event.sharesWeek(courses.get(k))){
+                            next = courses.get(k);
+                        }
                     }
 
                     //prints the walking times between this course and the next.
@@ -280,11 +482,43 @@ public class Schedule {
             }
 
             //adds space between week days only if it is part of the schedule.
-            if(!week.get(i).isEmpty()){
+            if(!courses.isEmpty()){
                 display += "\n\n\n\n";
             }
         }
-        display += getReport();
+        display += getReport(current);
         return display;
     }
+
+
+    /**
+     * This class stores a read-only copy of a schedule at one point in time.
+     * Each week day's courses are sorted by start time.
+     */
+    static final class Snapshot {
+        private final List<List<Course>> days;
+        private final List<Course> classes;
+        private final List<Course> conflictingCourses;
+        private final List<Course> invalidCourses;
+        private final int credits;
+
+        Snapshot(List<List<Course>> days, List<Course> classes, List<Course> conflictingCourses,
+                 List<Course> invalidCourses, int credits){
+            this.days = days;
+            this.classes = classes;
+            this.conflictingCourses = conflictingCourses;
+            this.invalidCourses = invalidCourses;
+            this.credits = credits;
+        }
+
+        List<Course> getDay(int day){ return days.get(day); }
+
+        List<Course> getClasses(){ return classes; }
+
+        List<Course> getConflictingCourses(){ return conflictingCourses; }
+
+        List<Course> getInvalidCourses(){ return invalidCourses; }
+
+        int getCredits(){ return credits; }
+    }
 }
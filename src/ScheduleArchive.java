@@ -0,0 +1,378 @@
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This class stores many rendered schedules in a single file. Each schedule is
+ * compressed and appended as a block, and an index maps each student ID to the
+ * position of its block, so reading one schedule takes a single positioned read.
+ * Several threads may append at once: each compresses its own schedule and only
+ * reserves its place in the file while holding the lock.
+ *
+ * Each block holds MAGIC, the length of the student ID, the ID in UTF-8, the length of
+ * the compressed schedule, the length of the rendered schedule, a checksum of everything
+ * after MAGIC but the checksum itself, and the compressed bytes. Since appends write
+ * their reserved places at once, a crash can leave a hole or a partial block before
+ * complete ones. Reopening skips any such region by searching for the next block whose
+ * checksum matches.
+ * @author Sandra Shtabnaya
+ */
+class ScheduleArchive implements AutoCloseable {
+    private static final int MAGIC = 0x53434842; //marks the start of each block.
+    private static final int HEADER = 20; //the bytes of MAGIC, lengths and checksum in each block, besides the ID.
+
+    private FileChannel channel;
+    private long end; //stores the position where the next block begins.
+    private ConcurrentHashMap<String, long[]> index = new ConcurrentHashMap<>(); //stores the block of each schedule, as in Block.entry.
+
+
+    /**
+     * Opens an archive, creating it if it does not exist. The index is rebuilt by
+     * checking each block. Damaged regions are skipped, and anything after the last
+     * complete block, left by an interrupted append, is overwritten by the next append.
+     * @param file the archive file.
+     * @throws IOException if the archive cannot be read.
+     */
+    ScheduleArchive(String file) throws IOException {
+        channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        long position = 0;
+
+        while(position + HEADER <= size){
+            Block block = readBlock(position, size);
+            if(block == null){
+                position = findMagic(position + 1, size);
+                continue;
+            }
+
+            //later blocks replace earlier ones, as they did when they were appended.
+            index.put(block.id, block.entry);
+            position = block.entry[0] + block.entry[1];
+            end = position;
+        }
+    }
+
+
+    /**
+     * Appends a rendered schedule to the archive. A later schedule with the
+     * same student ID replaces the earlier one in the index.
+     * @param student the ID of the student.
+     * @param schedule the rendered schedule.
+     * @throws IOException if the schedule cannot be written.
+     */
+    void append(String student, String schedule) throws IOException {
+        byte[] id = student.getBytes(StandardCharsets.UTF_8);
+        byte[] rendered = schedule.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = compress(rendered);
+
+        ByteBuffer block = ByteBuffer.allocate(HEADER + id.length + compressed.length);
+        block.putInt(MAGIC).putInt(id.length).put(id).putInt(compressed.length).putInt(rendered.length);
+        CRC32 crc = new CRC32();
+        crc.update(block.array(), 4, 12 + id.length);
+        crc.update(compressed);
+        block.putInt((int) crc.getValue()).put(compressed);
+        block.flip();
+
+        //reserves the space for the block, then writes it without holding the lock.
+        long position;
+        synchronized(this){
+            position = end;
+            end += block.remaining();
+        }
+        while(block.hasRemaining()){
+            channel.write(block, position + block.position());
+        }
+
+        //keeps the block reserved last, as reopening the archive would, whichever write finishes first.
+        long[] entry = {position, block.limit(), compressed.length, rendered.length};
+        index.merge(student, entry, (previous, current) -> current[0] > previous[0] ? current : previous);
+    }
+
+
+    /**
+     * Reads the schedule of a student.
+     * @param student the ID of the student.
+     * @return the rendered schedule, or null if the archive does not contain it.
+     * @throws IOException if the schedule cannot be read or is damaged.
+     */
+    String read(String student) throws IOException {
+        long[] entry = index.get(student);
+        if(entry == null){
+            return null;
+        }
+
+        //the index already holds the length of the block, so it is read all at once.
+        ByteBuffer block = ByteBuffer.allocate((int) entry[1]);
+        readFully(block, entry[0]);
+        int idLength = (int) entry[1] - HEADER - (int) entry[2];
+
+        boolean intact = block.getInt(0) == MAGIC && block.getInt(4) == idLength;
+        if(intact){
+            CRC32 crc = new CRC32();
+            crc.update(block.array(), 4, 12 + idLength);
+            crc.update(block.array(), HEADER + idLength, (int) entry[2]);
+            intact = (int) crc.getValue() == block.getInt(16 + idLength)
+                    && new String(block.array(), 8, idLength, StandardCharsets.UTF_8).equals(student);
+        }
+        if(!intact){
+            throw new IOException("The schedule of " + student + " is damaged.");
+        }
+        return decompress(block.array(), HEADER + idLength, (int) entry[2], (int) entry[3]);
+    }
+
+
+    /**
+     * Reads every schedule in the order it was appended, including schedules
+     * that were later replaced, and skipping damaged regions. It is meant for bulk
+     * export once appending has finished, since blocks that are still being written
+     * are skipped as damaged.
+     * @param reader receives the student ID and rendered schedule of each block.
+     * @throws IOException if the archive cannot be read.
+     */
+    void scan(BiConsumer<String, String> reader) throws IOException {
+        long limit;
+        synchronized(this){
+            limit = end;
+        }
+
+        long position = 0;
+        while(position + HEADER <= limit){
+            Block block = readBlock(position, limit);
+            if(block == null){
+                position = findMagic(position + 1, limit);
+                continue;
+            }
+
+            reader.accept(block.id, decompress(block.compressed, 0, block.compressed.length, (int) block.entry[3]));
+            position = block.entry[0] + block.entry[1];
+        }
+    }
+
+
+    /**
+     * This helper method reads and checks the block at a position whose length is not
+     * known yet, such as while searching past a damaged region.
+     * @param position the position of the block.
+     * @param limit the position the block must end by.
+     * @return the block, or null if there is no complete block with a matching checksum.
+     * @throws IOException if the archive cannot be read.
+     */
+    private Block readBlock(long position, long limit) throws IOException {
+        if(position + HEADER > limit){
+            return null;
+        }
+
+        ByteBuffer start = ByteBuffer.allocate(8);
+        readFully(start, position);
+        int idLength = start.getInt(4);
+        if(start.getInt(0) != MAGIC || idLength < 0 || position + HEADER + idLength > limit){
+            return null;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(idLength + 12);
+        readFully(header, position + 8);
+        int compressedLength = header.getInt(idLength);
+        int renderedLength = header.getInt(idLength + 4);
+        long length = HEADER + idLength + (long) compressedLength;
+        if(compressedLength < 0 || renderedLength < 0 || position + length > limit){
+            return null;
+        }
+
+        byte[] compressed = new byte[compressedLength];
+        readFully(ByteBuffer.wrap(compressed), position + HEADER + idLength);
+        CRC32 crc = new CRC32();
+        crc.update(start.array(), 4, 4);
+        crc.update(header.array(), 0, idLength + 8);
+        crc.update(compressed);
+        if((int) crc.getValue() != header.getInt(idLength + 8)){
+            return null;
+        }
+
+        Block block = new Block();
+        block.id = new String(header.array(), 0, idLength, StandardCharsets.UTF_8);
+        block.entry = new long[]{position, length, compressedLength, renderedLength};
+        block.compressed = compressed;
+        return block;
+    }
+
+
+    /**
+     * This helper method finds the next position holding MAGIC, where a block may begin.
+     * @param from the first position to check.
+     * @param limit the position to stop searching at.
+     * @return the position of MAGIC, or limit if there is none.
+     * @throws IOException if the archive cannot be read.
+     */
+    private long findMagic(long from, long limit) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(1 << 16);
+
+        for(long position = from; position + 4 <= limit; position += window.capacity() - 3){
+            window.clear();
+            window.limit((int) Math.min(window.capacity(), limit - position));
+            readFully(window, position);
+
+            for(int i = 0; i + 4 <= window.limit(); i++){
+                if(window.getInt(i) == MAGIC){
+                    return position + i;
+                }
+            }
+        }
+        return limit;
+    }
+
+
+    /**
+     * This helper method fills a buffer from a position in the archive.
+     * @throws EOFException if the archive ends first.
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, position + buffer.position()) < 0){
+                throw new EOFException("The archive ends at " + (position + buffer.position()) + ".");
+            }
+        }
+    }
+
+
+    /**
+     * This helper method compresses a rendered schedule.
+     * @param rendered the bytes of the schedule.
+     * @return the compressed bytes.
+     */
+    private byte[] compress(byte[] rendered){
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(rendered);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rendered.length / 4 + 16);
+        byte[] buffer = new byte[4096];
+        while(!deflater.finished()){
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+
+    /**
+     * This helper method decompresses a rendered schedule.
+     * @param data the array holding the compressed bytes.
+     * @param offset the position of the compressed bytes in the array.
+     * @param compressedLength the amount of compressed bytes.
+     * @param length the length of the rendered schedule in bytes.
+     * @return the rendered schedule.
+     * @throws IOException if the bytes are not a compressed schedule.
+     */
+    private String decompress(byte[] data, int offset, int compressedLength, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data, offset, compressedLength);
+        byte[] rendered = new byte[length];
+
+        try{
+            int read = 0;
+            while(read < length && !inflater.finished()){
+                read += inflater.inflate(rendered, read, length - read);
+            }
+        }
+        catch(DataFormatException e){
+            throw new IOException("The archive is corrupted.", e);
+        }
+        finally{
+            inflater.end();
+        }
+        return new String(rendered, StandardCharsets.UTF_8);
+    }
+
+    int size(){ return index.size(); }
+
+
+    /**
+     * This class stores a block read from the archive.
+     */
+    private static class Block {
+        String id;
+        long[] entry; //stores the position, length, compressed length and rendered length of the block.
+        byte[] compressed;
+    }
+
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * Runs the archive from the command line arguments. "write", the archive and a
+     * directory of request files renders each file into the archive, using the file
+     * name as the student ID, with an optional number of threads. "read", the archive
+     * and a student ID prints one schedule. "export" and the archive prints every schedule.
+     */
+    public static void main(String args[]){
+        try(ScheduleArchive archive = new ScheduleArchive(args[1])){
+            if(args[0].equals("write")){
+                File[] files = new File(args[2]).listFiles((dir, name) -> name.endsWith(".csv"));
+                if(files == null){
+                    throw new FileNotFoundException(args[2] + " is not a directory.");
+                }
+
+                int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                ArrayList<Future<?>> writes = new ArrayList<>();
+                for(File file : files){
+                    writes.add(pool.submit(() -> {
+                        String student = file.getName().substring(0, file.getName().length() - 4);
+                        try{
+                            archive.append(student, new Schedule(file.getPath()).toString());
+                        }
+                        catch(IllegalFileFormatException e){
+                            System.out.println(student + ": " + e.getMessage());
+                        }
+                        return null;
+                    }));
+                }
+
+                try{
+                    for(Future<?> write : writes){
+                        write.get();
+                    }
+                }
+                finally{
+                    pool.shutdown();
+                }
+            }
+            else if(args[0].equals("read")){
+                String schedule = archive.read(args[2]);
+                System.out.println(schedule == null ? "No schedule for " + args[2] : schedule);
+            }
+            else if(args[0].equals("export")){
+                archive.scan((student, schedule) -> System.out.println("====" + student + "\n" + schedule));
+            }
+        }
+        catch(IOException | ExecutionException e){
+            e.printStackTrace();
+            System.exit(74);
+        }
+        catch(InterruptedException e){
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * This class writes a schedule in a machine-readable format, either as JSON
+ * or as a compact binary encoding. Unlike Schedule.toString(), it skips the
+ * timeline rendering and streams the schedule data directly to the output.
+ * @author Sandra Shtabnaya
+ */
+class ScheduleExporter {
+    static final int BINARY_MAGIC = 0x43534348; //spells "CSCH", marks the start of a binary schedule.
+    static final int BINARY_VERSION = 2;
+    static final int NO_DATE = Integer.MIN_VALUE; //marks a meeting without a date range in the binary encoding.
+    private String[] weekDays = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+
+    /**
+     * Constructs a ScheduleExporter.
+     */
+    ScheduleExporter(){}
+
+
+    /**
+     * Writes the schedule as a single JSON object. The object contains the accepted
+     * meetings of each week day, the conflicting and invalid courses, and the total credits.
+     * @param schedule the schedule to write.
+     * @param out the Writer receiving the JSON text.
+     * @throws IOException if the schedule cannot be written.
+     */
+    void writeJson(Schedule schedule, Writer out) throws IOException {
+        Schedule.Snapshot current = schedule.getSnapshot();
+        out.write("{\"credits\":");
+        out.write(String.valueOf(current.getCredits()));
+
+        out.write(",\"days\":{");
+        boolean firstDay = true;
+        for(int i = 0; i < weekDays.length; i++){
+            List<Course> courses = current.getDay(i);
+
+            //only writes the days containing classes.
+            if(courses.isEmpty()){
+                continue;
+            }
+            if(!firstDay){
+                out.write(",");
+            }
+            firstDay = false;
+
+            writeString(weekDays[i], out);
+            out.write(":[");
+            for(int j = 0; j < courses.size(); j++){
+                Course event = courses.get(j);
+                if(j > 0){
+                    out.write(",");
+                }
+                out.write("{\"name\":");
+                writeString(event.getName(), out);
+                out.write(",\"title\":");
+                writeString(event.getTitle(), out);
+                out.write(",\"location\":");
+                writeString(event.getLocation(), out);
+                out.write(",\"start\":");
+                writeString(event.getStartTime().toString(), out);
+                out.write(",\"end\":");
+                writeString(event.getEndTime().toString(), out);
+                if(event.getStartDate() != null){
+                    out.write(",\"startDate\":");
+                    writeString(event.getStartDate().toString(), out);
+                    out.write(",\"endDate\":");
+                    writeString(event.getEndDate().toString(), out);
+                }
+                out.write("}");
+            }
+            out.write("]");
+        }
+        out.write("}");
+
+        out.write(",\"conflicts\":[");
+        List<Course> conflicts = current.getConflictingCourses();
+        for(int i = 0; i < conflicts.size(); i++){
+            Course event = conflicts.get(i);
+            if(i > 0){
+                out.write(",");
+            }
+            out.write("{\"name\":");
+            writeString(event.getName(), out);
+            out.write(",\"title\":");
+            writeString(event.getTitle(), out);
+            out.write(",\"conflictsWith\":");
+            writeString(event.getConflict(), out);
+            out.write(",\"day\":");
+            writeString(event.getDay(), out);
+            out.write("}");
+        }
+        out.write("]");
+
+        out.write(",\"invalid\":[");
+        List<Course> invalid = current.getInvalidCourses();
+        for(int i = 0; i < invalid.size(); i++){
+            Course event = invalid.get(i);
+            if(i > 0){
+                out.write(",");
+            }
+            out.write("{\"name\":");
+            writeString(event.getName(), out);
+            out.write(",\"title\":");
+            writeString(event.getTitle(), out);
+            out.write(",\"start\":");
+            writeString(event.getStartTime().toString(), out);
+            out.write(",\"end\":");
+            writeString(event.getEndTime().toString(), out);
+            out.write("}");
+        }
+        out.write("]}");
+        out.flush();
+    }
+
+
+    /**
+     * This helper method writes a JSON string literal, escaping quotes,
+     * backslashes and control characters. Null values are written as null.
+     * @param value the string to write.
+     * @param out the Writer receiving the JSON text.
+     * @throws IOException if the string cannot be written.
+     */
+    private void writeString(String value, Writer out) throws IOException {
+        if(value == null){
+            out.write("null");
+            return;
+        }
+
+        out.write('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                out.write('\\');
+                out.write(c);
+            }
+            else if(c == '\n'){
+                out.write("\\n");
+            }
+            else if(c == '\t'){
+                out.write("\\t");
+            }
+            else if(c < 0x20){
+                out.write(String.format("\\u%04x", (int) c));
+            }
+            else{
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+
+    /**
+     * Writes the schedule in a compact binary encoding. The encoding begins with
+     * BINARY_MAGIC, BINARY_VERSION and the total credits, followed by the meetings of
+     * each of the six week days, the conflicting courses and the invalid courses, each
+     * preceded by its count. Strings are written in modified UTF-8, times as the
+     * minute of the day and dates as the day since 1970, or NO_DATE.
+     * @param schedule the schedule to write.
+     * @param stream the stream receiving the encoded schedule.
+     * @throws IOException if the schedule cannot be written.
+     */
+    void writeBinary(Schedule schedule, OutputStream stream) throws IOException {
+        Schedule.Snapshot current = schedule.getSnapshot();
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(BINARY_MAGIC);
+        out.writeByte(BINARY_VERSION);
+        out.writeShort(current.getCredits());
+
+        for(int i = 0; i < weekDays.length; i++){
+            List<Course> courses = current.getDay(i);
+            out.writeShort(courses.size());
+            for(Course event : courses){
+                out.writeUTF(event.getName());
+                out.writeUTF(event.getTitle());
+                out.writeUTF(event.getLocation());
+                out.writeShort(toMinutes(event.getStartTime()));
+                out.writeShort(toMinutes(event.getEndTime()));
+                out.writeInt(event.getStartDate() == null ? NO_DATE : Math.toIntExact(event.getStartDate().toEpochDay()));
+                out.writeInt(event.getEndDate() == null ? NO_DATE : Math.toIntExact(event.getEndDate().toEpochDay()));
+            }
+        }
+
+        List<Course> conflicts = current.getConflictingCourses();
+        out.writeShort(conflicts.size());
+        for(Course event : conflicts){
+            out.writeUTF(event.getName());
+            out.writeUTF(event.getTitle());
+            out.writeUTF(event.getConflict() == null ? "" : event.getConflict());
+            out.writeUTF(event.getDay());
+        }
+
+        List<Course> invalid = current.getInvalidCourses();
+        out.writeShort(invalid.size());
+        for(Course event : invalid){
+            out.writeUTF(event.getName());
+            out.writeUTF(event.getTitle());
+            out.writeShort(toMinutes(event.getStartTime()));
+            out.writeShort(toMinutes(event.getEndTime()));
+        }
+        out.flush();
+    }
+
+
+    /**
+     * This helper method converts a time to the number of minutes since midnight.
+     * @param time the time to convert.
+     * @return the minute of the day.
+     */
+    private int toMinutes(LocalTime time){
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
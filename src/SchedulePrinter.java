@@ -2,7 +2,6 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 
 /**
  * This class creates the visual representation for a schedule.
@@ -17,11 +16,26 @@ class SchedulePrinter {
     private String scale; //stores the time scale for each week day
     private String header; //stores the header for the week day timeline.
     private final int LONGEST_NAME_LEN = 10; //stores the longest course name for aligning the course time lines.
+    private int resolution; //stores the amount of minutes each dot represents.
+
+    /**
+     * Constructs a SchedulePrinter with a dot for every five minutes.
+     */
+    SchedulePrinter(){
+        this(5);
+    }
+
 
     /**
      * Constructs a SchedulePrinter.
+     * @param resolution the amount of minutes each dot represents, either 1, 5 or 15.
      */
-    SchedulePrinter(){}
+    SchedulePrinter(int resolution){
+        if(resolution != 1 && resolution != 5 && resolution != 15){
+            throw new IllegalArgumentException(resolution + " minutes is not a valid time resolution.");
+        }
+        this.resolution = resolution;
+    }
 
 
     /**
@@ -55,17 +69,17 @@ class SchedulePrinter {
 
 
     /**
-     * This helper method determines the length of the day in five minute intervals.
+     * This helper method determines the length of the day in dots.
      * @param earliest the earliest class in the day.
      * @param latest the latest class in the day.
-     * @return the length of the week day in five minute intervals.
+     * @return the length of the week day in intervals of the time resolution.
      */
     private int getScheduleRange(Course earliest, Course latest){
         LocalTime startTime = earliest.getStartTime();
 
         //if the earliest class doesn't start on the dot, get the offset from the beginning of the hour.
-        int offset = Math.toIntExact(LocalTime.of(startTime.getHour(), 0).until(startTime, ChronoUnit.MINUTES)) / 5;
-        return Math.toIntExact(startTime.until(latest.getEndTime(), ChronoUnit.MINUTES) / 5) + offset;
+        int offset = Math.toIntExact(LocalTime.of(startTime.getHour(), 0).until(startTime, ChronoUnit.MINUTES)) / resolution;
+        return Math.toIntExact(startTime.until(latest.getEndTime(), ChronoUnit.MINUTES) / resolution) + offset;
     }
 
 
@@ -127,10 +141,10 @@ class SchedulePrinter {
         }
 
         int hour = earliestHr;
-        int prevHour = earliestHr;
+        int dotsPerHour = 60 / resolution;
 
         //determines how many hours are in the time range.
-        timeRange = (range / 12) + 1;
+        timeRange = (range / dotsPerHour) + 1;
 
         //adds hours and whitespace to the scale.
         for(int i = 1; i <= timeRange; i++){
@@ -141,32 +155,11 @@ class SchedulePrinter {
             }
             scale += hour;
 
-            //if the previous hour was two digits and
-            //the current hour is one digit, adds less
-            //whitespace to keep the scale aligned with
-            //the time line.
-            if(prevHour > 9 && hour < 10){
-                scale += "           ";
-            }
-
-            //if the previous hour was one digit, and
-            //the current hour is two digits
-            else if(prevHour < 10 && hour > 9){
-                scale += "          ";
-            }
-
-            //if both the previous and current hour
-            //are two digits
-            else if(prevHour > 9 && hour > 9){
-                scale += "          ";
-            }
-
-            //if both the previous and current hour
-            //are one digit
-            else{
-                scale += "           ";
+            //pads the hour to the width of an hour in the time line,
+            //keeping the scale aligned with the time line.
+            for(int j = String.valueOf(hour).length(); j < dotsPerHour; j++){
+                scale += " ";
             }
-            prevHour = hour;
             hour++;
         }
     }
@@ -205,41 +198,38 @@ class SchedulePrinter {
 
     /**
      * This helper method constructs the time line for each class in the day.
-     * Each "." represents 5 minutes, "[" the start time, "=" each five minutes in
-     * class and "]" the end time.
+     * Each "." represents an interval of the time resolution, "[" the start time,
+     * "=" each interval in class and "]" the end time.
      * @param event the course for which to create a timeline.
      * @return the visual representation of the timeline.
      */
     private String makeLine(Course event){
-        ArrayList<String> line = new ArrayList<>();
-        int startDot = getDot(event.getStartTime());
-        int endDot = getDot(event.getEndTime());
+        return makeSpans(event).toString();
+    }
 
-        for(int i = 0; i <= range; i++){
 
-            //if the current 5 minute count
-            //is the start time
-            if(i == startDot){
-                line.add("[");
-            }
-            else if(i == endDot){
-                line.add("]");
-            }
-            else if(i < startDot || i > endDot){
-                line.add(".");
-            }
-            else{
-                line.add("=");
-            }
-        }
+    /**
+     * This helper method constructs the time line for a class as runs of dots, brackets
+     * and equal signs, so building it does not depend on the time resolution.
+     * @param event the course for which to create a timeline.
+     * @return the runs making up the course's time line.
+     */
+    private Timeline makeSpans(Course event){
+        Timeline line = new Timeline(range + 1);
+        int startDot = getDot(event.getStartTime());
+        int endDot = getDot(event.getEndTime());
 
-        String timeline = "";
+        line.add('.', startDot);
+        line.add('[', 1);
+        line.add('=', endDot - startDot - 1);
 
-        for(String minute : line){
-            timeline += minute;
+        //a class shorter than one interval has no separate end bracket.
+        if(endDot > startDot){
+            line.add(']', 1);
         }
+        line.add('.', range - Math.max(startDot, endDot));
 
-        return timeline;
+        return line;
     }
 
 
@@ -251,7 +241,7 @@ class SchedulePrinter {
      */
     private int getDot(LocalTime time){
         LocalTime earliestHour = LocalTime.of(earliest.getStartTime().getHour(), 0);
-        return Math.toIntExact(earliestHour.until(time, ChronoUnit.MINUTES) / 5);
+        return Math.toIntExact(earliestHour.until(time, ChronoUnit.MINUTES) / resolution);
     }
 
 
@@ -262,7 +252,14 @@ class SchedulePrinter {
      */
     private String getMeetingTimes(Course event){
         DateTimeFormatter dtf = new DateTimeFormatterBuilder().appendPattern("hh:mm a").toFormatter(); // accepts am/pm time format.
-        return "      " + dtf.format(event.getStartTime()) + " - " + dtf.format(event.getEndTime());
+        String times = "      " + dtf.format(event.getStartTime()) + " - " + dtf.format(event.getEndTime());
+
+        //shows the date range of courses that do not meet all semester.
+        if(event.getStartDate() != null){
+            DateTimeFormatter dates = DateTimeFormatter.ofPattern("M/d");
+            times += " (" + dates.format(event.getStartDate()) + " - " + dates.format(event.getEndDate()) + ")";
+        }
+        return times;
     }
 
 
@@ -280,6 +277,9 @@ class SchedulePrinter {
 
             //determines the time until next class and prints out the walking times and destinations.
             int walkingTime = Math.toIntExact(event.getEndTime().until(nextClass.getStartTime(), ChronoUnit.MINUTES));
+            if(walkingTime < 0){
+                return walkingTimes;
+            }
             String breakTime = convertToHours(walkingTime);
             walkingTimes = "       " + breakTime + " from " + event.getLocation() +
                     " to " + nextClass.getLocation();
@@ -0,0 +1,619 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * This class keeps the schedules of many students on disk. Each added course line
+ * and dropped course is first appended to a write-ahead log. A single thread writes
+ * all the changes waiting to be logged at once and syncs the log, so many concurrent
+ * changes share one sync. Once the log grows past COMPACT_SIZE, the course lines of
+ * every student are written to a new snapshot and the log is emptied.
+ *
+ * When the store is opened, the snapshot is memory-mapped and only the position of
+ * each student's lines is read. A student's lines are read, and their schedule built,
+ * the first time it is needed. The log is then replayed, skipping changes the snapshot
+ * already contains and stopping at the first incomplete change.
+ * @author Sandra Shtabnaya
+ */
+class ScheduleStore implements AutoCloseable {
+    static final long COMPACT_SIZE = 64L << 20; //the size of the log that causes a new snapshot.
+    private static final byte ADD = 1;
+    private static final byte DROP = 2;
+    private static final byte COMPACT = 3; //asks the committing thread for a snapshot. It is never logged.
+
+    private Path snapshotFile;
+    private Path logFile;
+    private FileChannel log;
+    private ConcurrentHashMap<String, Student> students = new ConcurrentHashMap<>();
+    private long lastLsn; //stores the number of the last change written to the log or snapshot.
+
+    private final Object lock = new Object(); //guards the fields below.
+    private ArrayList<Change> pending = new ArrayList<>(); //stores the changes waiting to be logged.
+    private long requested; //stores the amount of changes ever requested.
+    private long committed; //stores the amount of requested changes that are durable.
+    private boolean closed;
+    private IOException failure; //stores the error that stopped the log, if any.
+    private Thread committer;
+
+
+    /**
+     * Opens a store, recovering the schedules from its snapshot and log.
+     * @param directory the directory holding the store's files. It is created if needed.
+     * @throws IOException if the store cannot be read.
+     */
+    ScheduleStore(String directory) throws IOException {
+        File folder = new File(directory);
+        if(!folder.isDirectory() && !folder.mkdirs()){
+            throw new IOException("Cannot create " + directory);
+        }
+        snapshotFile = new File(folder, "snapshot.dat").toPath();
+        logFile = new File(folder, "schedules.log").toPath();
+
+        loadSnapshot();
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replayLog();
+
+        committer = new Thread(this::commitChanges, "schedule-store-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+
+    /**
+     * This helper method maps the snapshot and finds where each student's lines begin.
+     * A snapshot holds the number of the last change it contains and the amount of
+     * students, followed by each student's ID, the length of their lines in bytes,
+     * the amount of lines and the lines themselves. Strings are written as their length
+     * followed by their UTF-8 bytes.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    private void loadSnapshot() throws IOException {
+        if(!Files.exists(snapshotFile)){
+            return;
+        }
+
+        MappedByteBuffer map;
+        try(FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)){
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try{
+            lastLsn = map.getLong();
+            int count = map.getInt();
+            for(int i = 0; i < count; i++){
+                String id = readString(map);
+                int length = map.getInt();
+                students.put(id, new Student(map, map.position()));
+                map.position(map.position() + length);
+            }
+        }
+        catch(RuntimeException e){
+            throw new IOException("The snapshot " + snapshotFile + " is damaged.", e);
+        }
+    }
+
+
+    /**
+     * This helper method applies the changes in the log that the snapshot does not
+     * contain. The log is cut off after the last complete change.
+     * Each change holds its length, its number, its type, the student ID, the course line
+     * or name, and a checksum.
+     * @throws IOException if the log cannot be read.
+     */
+    private void replayLog() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0)), 1 << 16));
+        long valid = 0;
+
+        while(true){
+            try{
+                int length = in.readInt();
+                if(length < 0 || valid + 8 + length > log.size()){
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                int checksum = in.readInt();
+
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if((int) crc.getValue() != checksum){
+                    break;
+                }
+
+                Change change = Change.decode(body);
+                if(change.lsn > lastLsn){
+                    apply(change);
+                    lastLsn = change.lsn;
+                }
+                valid += 8 + length;
+            }
+            catch(EOFException e){
+                break;
+            }
+        }
+
+        log.truncate(valid);
+        log.position(valid);
+    }
+
+
+    /**
+     * Adds a course line to a student's schedule. It returns once the change is durable.
+     * @param student the ID of the student.
+     * @param line the course line, in the same format as a schedule file.
+     * @throws IllegalFileFormatException if the line has improper formatting.
+     * @throws IOException if the change cannot be logged.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void addCourse(String student, String line) throws IllegalFileFormatException, IOException, InterruptedException {
+        //rejects lines that could not be replayed.
+        try{
+            new Schedule(new Scanner(line));
+        }
+        catch(RuntimeException e){
+            throw new IllegalFileFormatException(line + " is not a valid course.");
+        }
+        commit(new Change(ADD, student, line));
+    }
+
+
+    /**
+     * Drops a course from a student's schedule. It returns once the change is durable.
+     * @param student the ID of the student.
+     * @param name the name of the course to drop.
+     * @throws IOException if the change cannot be logged.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void dropCourse(String student, String name) throws IOException, InterruptedException {
+        commit(new Change(DROP, student, name));
+    }
+
+
+    /**
+     * Writes a new snapshot and empties the log, once every earlier change is durable.
+     * @throws IOException if the snapshot cannot be written.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    void compact() throws IOException, InterruptedException {
+        commit(new Change(COMPACT, "", ""));
+    }
+
+
+    /**
+     * Returns the schedule of a student, building it the first time it is needed.
+     * @param student the ID of the student.
+     * @return the schedule, or null if the store has no courses for the student.
+     */
+    Schedule getSchedule(String student){
+        Student entry = students.get(student);
+        return entry == null ? null : entry.getSchedule();
+    }
+
+    int size(){ return students.size(); }
+
+
+    /**
+     * This helper method hands a change to the committing thread and waits until it is durable.
+     * @param change the change to make.
+     * @throws IOException if the log has failed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    private void commit(Change change) throws IOException, InterruptedException {
+        synchronized(lock){
+            if(closed){
+                throw new IOException("The schedule store is closed.");
+            }
+            pending.add(change);
+            long number = ++requested;
+            lock.notifyAll();
+
+            while(committed < number && failure == null){
+                lock.wait();
+            }
+            if(committed < number){
+                throw new IOException("The schedule log failed.", failure);
+            }
+        }
+    }
+
+
+    /**
+     * This helper method runs on the committing thread. It writes every waiting change to
+     * the log in a single write, syncs the log once, applies the changes and then wakes
+     * their threads.
+     */
+    private void commitChanges(){
+        while(true){
+            ArrayList<Change> batch;
+            synchronized(lock){
+                while(pending.isEmpty() && !closed){
+                    try{
+                        lock.wait();
+                    }
+                    catch(InterruptedException e){
+                        return;
+                    }
+                }
+                if(pending.isEmpty()){
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            try{
+                boolean compactRequested = false;
+                ArrayList<byte[]> records = new ArrayList<>();
+                int size = 0;
+                for(Change change : batch){
+                    if(change.type == COMPACT){
+                        compactRequested = true;
+                        continue;
+                    }
+                    change.lsn = ++lastLsn;
+                    byte[] record = change.encode();
+                    records.add(record);
+                    size += record.length;
+                }
+
+                ByteBuffer buffer = ByteBuffer.allocate(size);
+                for(byte[] record : records){
+                    buffer.put(record);
+                }
+                buffer.flip();
+                while(buffer.hasRemaining()){
+                    log.write(buffer);
+                }
+                log.force(false);
+
+                for(Change change : batch){
+                    if(change.type != COMPACT){
+                        apply(change);
+                    }
+                }
+
+                if(compactRequested || log.size() > COMPACT_SIZE){
+                    writeSnapshot();
+                }
+
+                synchronized(lock){
+                    committed += batch.size();
+                    lock.notifyAll();
+                }
+            }
+            catch(IOException e){
+                fail(e);
+                return;
+            }
+
+            //any other error, such as a damaged snapshot, must still wake the waiting threads.
+            catch(RuntimeException e){
+                fail(new IOException("The schedule store failed.", e));
+                return;
+            }
+        }
+    }
+
+
+    /**
+     * This helper method stops the log, failing every waiting and later change.
+     * @param e the error that stopped the log.
+     */
+    private void fail(IOException e){
+        synchronized(lock){
+            failure = e;
+            lock.notifyAll();
+        }
+    }
+
+
+    /**
+     * This helper method applies a logged change to a student's lines and schedule.
+     * @param change the change to apply.
+     */
+    private void apply(Change change){
+        Student entry = students.computeIfAbsent(change.student, k -> new Student(null, 0));
+        if(change.type == ADD){
+            entry.add(change.payload);
+        }
+        else if(change.type == DROP){
+            entry.drop(change.payload);
+        }
+    }
+
+
+    /**
+     * This helper method writes every student's lines to a new snapshot, replaces the old
+     * snapshot with it and empties the log. Lines that have not been read since the last
+     * snapshot are copied without being decoded.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    private void writeSnapshot() throws IOException {
+        Path temporary = snapshotFile.resolveSibling("snapshot.tmp");
+        ArrayList<String> ids = new ArrayList<>(students.keySet());
+        long[] offsets = new long[ids.size()];
+
+        try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeLong(lastLsn);
+            out.writeInt(ids.size());
+
+            for(int i = 0; i < ids.size(); i++){
+                byte[] id = ids.get(i).getBytes(StandardCharsets.UTF_8);
+                byte[] lines = students.get(ids.get(i)).encode();
+                out.writeInt(id.length);
+                out.write(id);
+                out.writeInt(lines.length);
+                offsets[i] = out.size();
+                out.write(lines);
+            }
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+
+        //points each student at the new snapshot, so the old one can be released.
+        MappedByteBuffer map;
+        try(FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)){
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        for(int i = 0; i < ids.size(); i++){
+            students.get(ids.get(i)).moveTo(map, (int) offsets[i]);
+        }
+    }
+
+
+    /**
+     * This helper method reads a string written as its length followed by its UTF-8 bytes.
+     */
+    private static String readString(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    /**
+     * Waits for the waiting changes to be logged, then closes the log.
+     * @throws IOException if the log cannot be closed.
+     */
+    public void close() throws IOException {
+        synchronized(lock){
+            closed = true;
+            lock.notifyAll();
+        }
+        try{
+            committer.join();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing the schedule store.");
+        }
+        log.close();
+    }
+
+
+    /**
+     * Runs the store from the command line arguments: the store's directory followed by
+     * "add", a student ID and a course line, "drop", a student ID and a course name,
+     * "show" and a student ID, or "compact".
+     */
+    public static void main(String args[]){
+        try(ScheduleStore store = new ScheduleStore(args[0])){
+            if(args[1].equals("add")){
+                store.addCourse(args[2], args[3]);
+            }
+            else if(args[1].equals("drop")){
+                store.dropCourse(args[2], args[3]);
+            }
+            else if(args[1].equals("show")){
+                Schedule schedule = store.getSchedule(args[2]);
+                System.out.println(schedule == null ? "No schedule for " + args[2] : schedule);
+            }
+            else if(args[1].equals("compact")){
+                store.compact();
+            }
+            else{
+                throw new IllegalArgumentException("Unknown command " + args[1]);
+            }
+        }
+        catch(IllegalFileFormatException | IllegalArgumentException e){
+            System.out.println(e.getMessage());
+            System.exit(22);
+        }
+        catch(IOException e){
+            e.printStackTrace();
+            System.exit(74);
+        }
+        catch(InterruptedException e){
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * This class stores the course lines of one student. Until they are needed,
+     * the lines are left in the mapped snapshot.
+     */
+    private static class Student {
+        private ByteBuffer source; //stores the snapshot holding the lines, if they have not been read.
+        private int offset; //stores the position of the lines in the snapshot.
+        private ArrayList<String> lines;
+        private Schedule schedule;
+
+        Student(ByteBuffer source, int offset){
+            this.source = source;
+            this.offset = offset;
+            if(source == null){
+                lines = new ArrayList<>();
+            }
+        }
+
+        /**
+         * Reads the lines from the snapshot, if they have not been read yet.
+         */
+        private void load(){
+            if(lines != null){
+                return;
+            }
+
+            ByteBuffer buffer = source.duplicate();
+            buffer.position(offset);
+            int count = buffer.getInt();
+            lines = new ArrayList<>(count);
+            for(int i = 0; i < count; i++){
+                lines.add(readString(buffer));
+            }
+        }
+
+        synchronized Schedule getSchedule(){
+            if(schedule == null){
+                load();
+                schedule = new Schedule();
+                for(String line : lines){
+                    addLine(line);
+                }
+            }
+            return schedule;
+        }
+
+        synchronized void add(String line){
+            load();
+            lines.add(line);
+            if(schedule != null){
+                addLine(line);
+            }
+        }
+
+        synchronized void drop(String name){
+            load();
+            //rebuilds the schedule from the remaining lines when it is next read, so
+            //courses rejected because of the dropped course are checked again, as on recovery.
+            if(lines.removeIf(line -> line.split(",")[0].equals(name))){
+                schedule = null;
+            }
+        }
+
+        /**
+         * This helper method adds a line to the schedule. Lines are checked
+         * before they are logged, so they are always valid.
+         */
+        private void addLine(String line){
+            try{
+                new Course(new Scanner(line), schedule);
+            }
+            catch(IllegalFileFormatException e){
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Returns the lines as the amount of lines followed by each line.
+         * Lines that have not been read are copied straight from the snapshot.
+         */
+        synchronized byte[] encode(){
+            if(lines == null){
+                ByteBuffer buffer = source.duplicate();
+                buffer.position(offset);
+                int start = offset;
+                int count = buffer.getInt();
+                for(int i = 0; i < count; i++){
+                    buffer.position(buffer.position() + buffer.getInt());
+                }
+                byte[] bytes = new byte[buffer.position() - start];
+                buffer.position(start);
+                buffer.get(bytes);
+                return bytes;
+            }
+
+            int size = 4;
+            ArrayList<byte[]> encoded = new ArrayList<>();
+            for(String line : lines){
+                byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                size += 4 + bytes.length;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(lines.size());
+            for(byte[] bytes : encoded){
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            return buffer.array();
+        }
+
+        synchronized void moveTo(ByteBuffer map, int position){
+            source = map;
+            offset = position;
+        }
+    }
+
+
+    /**
+     * This class stores a single change to a student's schedule.
+     */
+    private static class Change {
+        long lsn; //stores the number of the change, given when it is logged.
+        byte type;
+        String student;
+        String payload; //stores the course line to add or the name of the course to drop.
+
+        Change(byte type, String student, String payload){
+            this.type = type;
+            this.student = student;
+            this.payload = payload;
+        }
+
+        /**
+         * Returns the change as a log record: its length, its body and the checksum of its body.
+         */
+        byte[] encode(){
+            byte[] id = student.getBytes(StandardCharsets.UTF_8);
+            byte[] text = payload.getBytes(StandardCharsets.UTF_8);
+            int length = 8 + 1 + 4 + id.length + 4 + text.length;
+
+            ByteBuffer record = ByteBuffer.allocate(4 + length + 4);
+            record.putInt(length).putLong(lsn).put(type).putInt(id.length).put(id).putInt(text.length).put(text);
+
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 4, length);
+            record.putInt((int) crc.getValue());
+            return record.array();
+        }
+
+        /**
+         * Reads a change from the body of a log record.
+         */
+        static Change decode(byte[] body){
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            long lsn = buffer.getLong();
+            byte type = buffer.get();
+            Change change = new Change(type, readString(buffer), readString(buffer));
+            change.lsn = lsn;
+            return change;
+        }
+    }
+}
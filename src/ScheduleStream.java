@@ -0,0 +1,201 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class schedules a stream of schedule files in one long-running process.
+ * Each schedule arrives on the input as its .csv lines followed by a line containing
+ * only DELIMITER. Each result is written as a header line with the schedule's number,
+ * OK or ERROR and the length of the result in bytes, followed by the result itself
+ * and a new line. Results are written in the order the schedules arrive.
+ *
+ * Reading, scheduling, rendering and writing each run on their own thread,
+ * passing schedules along through bounded queues.
+ * @author Sandra Shtabnaya
+ */
+class ScheduleStream {
+    static final String DELIMITER = "%%"; //the line ending each schedule.
+    private static final int QUEUE_SIZE = 64;
+    private static final Frame END = new Frame(-1, null); //marks the end of the input.
+
+    private boolean json; //stores whether to write JSON instead of the timeline.
+    private BlockingQueue<Frame> read = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private BlockingQueue<Frame> scheduled = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private BlockingQueue<Frame> rendered = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private volatile IOException readError; //stores the error that stopped the input, if any.
+
+
+    /**
+     * Constructs a ScheduleStream.
+     * @param json whether to write each schedule as JSON instead of the timeline.
+     */
+    ScheduleStream(boolean json){
+        this.json = json;
+    }
+
+
+    /**
+     * Schedules every schedule on the input until it ends.
+     * @param in the stream of schedules.
+     * @param out the stream receiving the results.
+     * @throws IOException if the input cannot be read or the results cannot be written.
+     * @throws InterruptedException if the stream is interrupted.
+     */
+    void run(InputStream in, OutputStream out) throws IOException, InterruptedException {
+        Thread reader = new Thread(() -> readFrames(in), "schedule-reader");
+        Thread scheduler = new Thread(this::scheduleFrames, "schedule-scheduler");
+        Thread renderer = new Thread(this::renderFrames, "schedule-renderer");
+        reader.setDaemon(true);
+        scheduler.setDaemon(true);
+        renderer.setDaemon(true);
+        reader.start();
+        scheduler.start();
+        renderer.start();
+
+        for(Frame frame = rendered.take(); frame != END; frame = rendered.take()){
+            byte[] result = frame.result.getBytes(StandardCharsets.UTF_8);
+            String header = frame.number + " " + (frame.error ? "ERROR" : "OK") + " " + result.length + "\n";
+            out.write(header.getBytes(StandardCharsets.UTF_8));
+            out.write(result);
+            out.write('\n');
+
+            //sends the results right away when no more are ready.
+            if(rendered.isEmpty()){
+                out.flush();
+            }
+        }
+        out.flush();
+
+        if(readError != null){
+            throw readError;
+        }
+    }
+
+
+    /**
+     * This helper method splits the input into schedules.
+     * @param in the stream of schedules.
+     */
+    private void readFrames(InputStream in){
+        BufferedReader input = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        StringBuilder lines = new StringBuilder();
+        int number = 0;
+
+        try{
+            try{
+                for(String line = input.readLine(); line != null; line = input.readLine()){
+                    if(line.trim().equals(DELIMITER)){
+                        read.put(new Frame(number++, lines.toString()));
+                        lines.setLength(0);
+                    }
+                    else if(!line.trim().isEmpty()){
+                        lines.append(line).append('\n');
+                    }
+                }
+
+                //schedules the last schedule even if its delimiter is missing.
+                if(lines.length() > 0){
+                    read.put(new Frame(number, lines.toString()));
+                }
+            }
+            catch(IOException e){
+                readError = e;
+            }
+            read.put(END);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * This helper method reads the courses of each schedule and resolves their conflicts.
+     */
+    private void scheduleFrames(){
+        try{
+            for(Frame frame = read.take(); frame != END; frame = read.take()){
+                try{
+                    frame.schedule = new Schedule(new Scanner(frame.text));
+                }
+                catch(IllegalFileFormatException e){
+                    frame.fail(e.getMessage());
+                }
+
+                //a malformed schedule must not stop the stream.
+                catch(RuntimeException e){
+                    frame.fail("FILE FORMATTING ERROR: " + e);
+                }
+                frame.text = null;
+                scheduled.put(frame);
+            }
+            scheduled.put(END);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * This helper method renders each schedule.
+     */
+    private void renderFrames(){
+        ScheduleExporter exporter = new ScheduleExporter();
+
+        try{
+            for(Frame frame = scheduled.take(); frame != END; frame = scheduled.take()){
+                if(!frame.error){
+                    try{
+                        if(json){
+                            StringWriter text = new StringWriter();
+                            exporter.writeJson(frame.schedule, text);
+                            frame.result = text.toString();
+                        }
+                        else{
+                            frame.result = frame.schedule.toString();
+                        }
+                    }
+                    catch(IOException | RuntimeException e){
+                        frame.fail("RENDERING ERROR: " + e);
+                    }
+                    frame.schedule = null;
+                }
+                rendered.put(frame);
+            }
+            rendered.put(END);
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * This class stores a schedule as it passes through the stream.
+     */
+    private static class Frame {
+        int number;
+        String text; //stores the .csv lines of the schedule.
+        Schedule schedule;
+        String result;
+        boolean error;
+
+        Frame(int number, String text){
+            this.number = number;
+            this.text = text;
+        }
+
+        void fail(String message){
+            error = true;
+            result = message;
+        }
+    }
+}
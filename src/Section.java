@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+
+/**
+ * This class stores a single line of a course catalog, which
+ * describes one section of a course and all of its meetings.
+ * @author Sandra Shtabnaya
+ */
+class Section {
+    private String line; //stores the catalog line describing the section.
+    private int number; //stores the position of the section in the catalog.
+    private ArrayList<Course> meetings = new ArrayList<>(); //stores a course for each meeting day of the section.
+
+
+    /**
+     * Constructs a section.
+     * @param line the catalog line describing the section.
+     * @param number the position of the section in the catalog, starting at 0.
+     */
+    Section(String line, int number){
+        this.line = line;
+        this.number = number;
+    }
+
+
+    /**
+     * Adds a meeting to the section.
+     * @param meeting the course representing a single meeting day.
+     */
+    void addMeeting(Course meeting){
+        meetings.add(meeting);
+    }
+
+
+    /**
+     * Determines whether the section has no scheduled meeting times.
+     * @return whether the section is online or its location is yet to be announced.
+     */
+    boolean isUnscheduled(){
+        String day = meetings.get(0).getDay();
+        return day.equals("ONLINE") || day.equals("TBA");
+    }
+
+    String getName(){ return meetings.get(0).getName(); }
+
+    String getTitle(){ return meetings.get(0).getTitle(); }
+
+    int getCredits(){ return meetings.get(0).getCredits(); }
+
+    String getLine(){ return line; }
+
+    int getNumber(){ return number; }
+
+    ArrayList<Course> getMeetings(){ return meetings; }
+
+    public String toString(){
+        return line;
+    }
+}
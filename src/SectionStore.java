@@ -0,0 +1,270 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Scanner;
+
+/**
+ * This class stores the meetings of a catalog in columns of primitive arrays
+ * instead of Course objects. Each row is a meeting time of a section, with a bit
+ * for each of its week days. Course and room names are stored once and referred to
+ * by number. Lines are parsed one at a time and their courses discarded, so the
+ * store only grows by a few ints for each meeting. Date ranges are not stored, so
+ * every meeting is treated as meeting all semester.
+ * @author Sandra Shtabnaya
+ */
+class SectionStore {
+    static final String WEEK_DAY_LETTERS = "MTWRFS"; //the letter of each week day bit, starting with Monday.
+
+    private int[] days = new int[16]; //stores a bit for each week day of the meeting, with Monday as the lowest bit.
+    private int[] starts = new int[16]; //stores the start of the meeting in minutes since midnight.
+    private int[] ends = new int[16]; //stores the end of the meeting in minutes since midnight.
+    private int[] credits = new int[16];
+    private int[] rooms = new int[16];
+    private int[] names = new int[16];
+    private int[] sections = new int[16]; //stores the catalog line number of the meeting's section.
+    private int size; //stores the amount of rows in use.
+    private int sectionCount;
+
+    private HashMap<String, Integer> nameNumbers = new HashMap<>();
+    private ArrayList<String> nameList = new ArrayList<>();
+    private HashMap<String, Integer> roomNumbers = new HashMap<>();
+    private ArrayList<String> roomList = new ArrayList<>();
+
+
+    /**
+     * Constructs a section store from a catalog file.
+     * @param file the .csv file containing the catalog.
+     * @throws FileNotFoundException if the .csv file cannot be found.
+     * @throws IllegalFileFormatException if the .csv file has improper formatting.
+     */
+    SectionStore(String file) throws FileNotFoundException, IllegalFileFormatException {
+        Scanner catalog = new Scanner(new File(file));
+
+        while(catalog.hasNextLine()){
+            String line = catalog.nextLine();
+
+            //skips blank lines between sections.
+            if(line.trim().isEmpty()){
+                continue;
+            }
+
+            for(Course meeting : Course.parse(line)){
+                addMeeting(meeting);
+            }
+            sectionCount++;
+        }
+        catalog.close();
+        trim();
+    }
+
+
+    /**
+     * Adds a meeting of the section being read as a row. A meeting on another
+     * week day at the same time and place is added to the previous row instead.
+     * Online and TBA sections have no rows.
+     * @param course the meeting to add.
+     */
+    private void addMeeting(Course course){
+        int day = Schedule.dayNumber(course.getDay());
+        if(day < 0){
+            return;
+        }
+
+        int start = course.getStartTime().toSecondOfDay() / 60;
+        int end = course.getEndTime().toSecondOfDay() / 60;
+        int room = intern(course.getLocation(), roomNumbers, roomList);
+        int last = size - 1;
+
+        if(last >= 0 && sections[last] == sectionCount && starts[last] == start
+                && ends[last] == end && rooms[last] == room){
+            days[last] |= 1 << day;
+            return;
+        }
+
+        if(size == days.length){
+            grow(size * 2);
+        }
+        days[size] = 1 << day;
+        starts[size] = start;
+        ends[size] = end;
+        credits[size] = course.getCredits();
+        rooms[size] = room;
+        names[size] = intern(course.getName(), nameNumbers, nameList);
+        sections[size] = sectionCount;
+        size++;
+    }
+
+
+    /**
+     * This helper method gives each distinct string a number.
+     * @param value the string to number.
+     * @param numbers the numbers given so far.
+     * @param values the strings numbered so far, in order.
+     * @return the number of the string.
+     */
+    private int intern(String value, HashMap<String, Integer> numbers, ArrayList<String> values){
+        Integer number = numbers.get(value);
+        if(number == null){
+            number = values.size();
+            numbers.put(value, number);
+            values.add(value);
+        }
+        return number;
+    }
+
+
+    /**
+     * This helper method resizes every column.
+     * @param capacity the new amount of rows each column can hold.
+     */
+    private void grow(int capacity){
+        days = Arrays.copyOf(days, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        credits = Arrays.copyOf(credits, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+        names = Arrays.copyOf(names, capacity);
+        sections = Arrays.copyOf(sections, capacity);
+    }
+
+
+    /**
+     * This helper method removes the unused rows at the end of each column.
+     */
+    private void trim(){
+        if(size < days.length){
+            grow(Math.max(size, 1));
+        }
+    }
+
+
+    /**
+     * Counts the meetings overlapping a time interval on any of the given days.
+     * As in Course.conflictsWith, meetings touching at an end point overlap.
+     * The loop has no branches, so the compiler can process several rows at once.
+     * @param dayMask a bit for each week day in question, with Monday as the lowest bit.
+     * @param start the start of the interval in minutes since midnight.
+     * @param end the end of the interval in minutes since midnight.
+     * @return the amount of overlapping meetings.
+     */
+    int countOverlapping(int dayMask, int start, int end){
+        int count = 0;
+        for(int i = 0; i < size; i++){
+            int sameDay = (days[i] & dayMask) != 0 ? 1 : 0;
+            int sameTime = starts[i] <= end & start <= ends[i] ? 1 : 0;
+            count += sameDay & sameTime;
+        }
+        return count;
+    }
+
+
+    /**
+     * Finds the meetings overlapping a time interval on any of the given days.
+     * @param dayMask a bit for each week day in question, with Monday as the lowest bit.
+     * @param start the start of the interval in minutes since midnight.
+     * @param end the end of the interval in minutes since midnight.
+     * @param found the array receiving the overlapping row numbers. It must hold at least size() rows.
+     * @return the amount of overlapping meetings written to found.
+     */
+    int findOverlapping(int dayMask, int start, int end, int[] found){
+        int count = 0;
+        for(int i = 0; i < size; i++){
+            found[count] = i;
+            int sameDay = (days[i] & dayMask) != 0 ? 1 : 0;
+            int sameTime = starts[i] <= end & start <= ends[i] ? 1 : 0;
+            count += sameDay & sameTime;
+        }
+        return count;
+    }
+
+
+    /**
+     * Converts meeting days such as "MWF" to a bit for each week day.
+     * @param meetingDays the first letter of each week day, with Thursday denoted as "R."
+     * @return the bits of the week days, with Monday as the lowest bit.
+     */
+    static int toDayMask(String meetingDays){
+        int mask = 0;
+        for(int i = 0; i < meetingDays.length(); i++){
+            int day = WEEK_DAY_LETTERS.indexOf(meetingDays.charAt(i));
+            if(day >= 0){
+                mask |= 1 << day;
+            }
+        }
+        return mask;
+    }
+
+    int size(){ return size; }
+
+    int getSectionCount(){ return sectionCount; }
+
+    int getDays(int row){ return days[row]; }
+
+    int getStart(int row){ return starts[row]; }
+
+    int getEnd(int row){ return ends[row]; }
+
+    int getCredits(int row){ return credits[row]; }
+
+    int getSection(int row){ return sections[row]; }
+
+    String getName(int row){ return nameList.get(names[row]); }
+
+    String getRoom(int row){ return roomList.get(rooms[row]); }
+
+
+    /**
+     * Lists the meetings of a catalog that overlap a time from the command line arguments:
+     * the catalog file, the meeting days, such as "MWF", and the start and end times,
+     * such as "9:00 AM" and "9:50 AM".
+     */
+    public static void main(String args[]){
+        DateTimeFormatter dtf = new DateTimeFormatterBuilder().parseCaseInsensitive()
+                .appendPattern("h:mm a").toFormatter();
+
+        try{
+            SectionStore store = new SectionStore(args[0]);
+            int dayMask = toDayMask(args[1].toUpperCase());
+            int start = LocalTime.parse(args[2].trim(), dtf).toSecondOfDay() / 60;
+            int end = LocalTime.parse(args[3].trim(), dtf).toSecondOfDay() / 60;
+
+            int[] found = new int[store.size() + 1];
+            int count = store.findOverlapping(dayMask, start, end, found);
+            for(int i = 0; i < count; i++){
+                int row = found[i];
+                System.out.println(store.getName(row) + ", " + store.getRoom(row) + ", " + toDays(store.getDays(row))
+                        + ", " + dtf.format(LocalTime.ofSecondOfDay(store.getStart(row) * 60L)) + " - "
+                        + dtf.format(LocalTime.ofSecondOfDay(store.getEnd(row) * 60L)));
+            }
+            System.out.println(count + " of " + store.size() + " meetings overlap.");
+        }
+        catch(FileNotFoundException e){
+            e.printStackTrace();
+            System.exit(22);
+        }
+        catch(IllegalFileFormatException | DateTimeParseException | ArrayIndexOutOfBoundsException e){
+            System.out.println(e.getMessage());
+            System.exit(22);
+        }
+    }
+
+
+    /**
+     * This helper method converts the bits of the week days back to letters such as "MWF".
+     */
+    private static String toDays(int dayMask){
+        String days = "";
+        for(int i = 0; i < WEEK_DAY_LETTERS.length(); i++){
+            if((dayMask & 1 << i) != 0){
+                days += WEEK_DAY_LETTERS.charAt(i);
+            }
+        }
+        return days;
+    }
+}
@@ -1,14 +1,51 @@
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 
 /**
  * Creates and prints the schedule for the semester.
+ * An optional second argument, "json" or "binary", writes the schedule
+ * in a machine-readable format instead of the timeline. A number instead
+ * sets the minutes each dot of the timeline represents: 1, 5 or 15.
+ * "repair" followed by a catalog file also suggests other sections
+ * for each conflicting course.
+ * If the first argument is "stream", schedules are instead read from standard
+ * input until it ends, as described in ScheduleStream, optionally followed by "json".
  * @author Sandra Shtabnaya
  */
 public class SemesterScheduler {
 	public static void main(String args[]){
 		try{
+			if(args[0].equals("stream")){
+				boolean json = args.length > 1 && args[1].equalsIgnoreCase("json");
+				new ScheduleStream(json).run(System.in, System.out);
+				return;
+			}
+
 			Schedule schedule = new Schedule("files/" + args[0]);
-			System.out.println(schedule);
+			ScheduleExporter exporter = new ScheduleExporter();
+
+			if(args.length > 1 && args[1].equalsIgnoreCase("json")){
+				exporter.writeJson(schedule, new OutputStreamWriter(System.out, "UTF-8"));
+				System.out.println();
+			}
+			else if(args.length > 1 && args[1].equalsIgnoreCase("binary")){
+				exporter.writeBinary(schedule, System.out);
+			}
+			else if(args.length > 2 && args[1].equalsIgnoreCase("repair")){
+				System.out.println(schedule);
+				ConflictRepair repair = new ConflictRepair(new Catalog("files/" + args[2]));
+				System.out.println("\n----SUGGESTIONS------------------------");
+				for(ConflictRepair.Repair suggestion : repair.suggest(schedule)){
+					System.out.println(suggestion);
+				}
+			}
+			else{
+				if(args.length > 1){
+					schedule.setResolution(Integer.parseInt(args[1]));
+				}
+				System.out.println(schedule);
+			}
 		}
 		catch(FileNotFoundException e){
 			e.printStackTrace();
@@ -18,5 +55,16 @@ public class SemesterScheduler {
 			System.out.println(e.getMessage());
 			System.exit(22);
 		}
+		catch(IllegalArgumentException e){
+			System.out.println(e.getMessage());
+			System.exit(22);
+		}
+		catch(IOException e){
+			e.printStackTrace();
+			System.exit(74);
+		}
+		catch(InterruptedException e){
+			System.exit(1);
+		}
 	}
 }
@@ -0,0 +1,67 @@
+import java.util.Arrays;
+
+/**
+ * This class builds a course timeline as runs of repeated symbols,
+ * such as twelve "." followed by one "[". Building a timeline takes time
+ * proportional to the number of runs, regardless of the time resolution.
+ * The timeline is still written out one symbol per interval.
+ * @author Sandra Shtabnaya
+ */
+class Timeline {
+    private char[] symbols = new char[5];
+    private int[] lengths = new int[5];
+    private int runs; //stores the amount of runs in the timeline.
+    private int length; //stores the amount of symbols in the timeline.
+    private int capacity; //stores the most symbols the timeline can hold.
+
+
+    /**
+     * Constructs an empty timeline.
+     * @param capacity the most symbols the timeline can hold. Symbols past it are cut off.
+     */
+    Timeline(int capacity){
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * Adds a run of symbols to the end of the timeline.
+     * @param symbol the symbol to repeat.
+     * @param count the amount of times to repeat it. Nothing is added if it is not positive.
+     */
+    void add(char symbol, int count){
+        count = Math.min(count, capacity - length);
+        if(count <= 0){
+            return;
+        }
+
+        //extends the last run if it has the same symbol.
+        if(runs > 0 && symbols[runs - 1] == symbol){
+            lengths[runs - 1] += count;
+        }
+        else{
+            if(runs == symbols.length){
+                symbols = Arrays.copyOf(symbols, runs * 2);
+                lengths = Arrays.copyOf(lengths, runs * 2);
+            }
+            symbols[runs] = symbol;
+            lengths[runs] = count;
+            runs++;
+        }
+        length += count;
+    }
+
+    /**
+     * Returns the timeline with each run written out, one symbol per interval.
+     * @return the symbols of the timeline.
+     */
+    public String toString(){
+        char[] line = new char[length];
+        int position = 0;
+        for(int i = 0; i < runs; i++){
+            Arrays.fill(line, position, position + lengths[i], symbols[i]);
+            position += lengths[i];
+        }
+        return new String(line);
+    }
+}
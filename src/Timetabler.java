@@ -0,0 +1,629 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class builds a term timetable by assigning each section of a catalog
+ * a standard meeting pattern and a room. It minimizes the number of students
+ * whose requested courses meet at the same time, and avoids booking a room twice.
+ * Several simulated annealing searches run in parallel from different seeds, and
+ * the best timetable is kept. Each move is scored by the change in cost it causes,
+ * so a move costs time proportional to the number of co-requested sections.
+ * Sections with more than one meeting time or room, or with a date range, keep the
+ * meetings they are listed with. They are never moved, but the rooms they use and the
+ * students who request them are counted in the cost like those of any other section.
+ * @author Sandra Shtabnaya
+ */
+public class Timetabler {
+    //the standard meeting patterns: days, start time and end time.
+    static final String[] PATTERN_DAYS = {"MWF", "MWF", "MWF", "MWF", "MWF", "MWF", "MWF", "MWF",
+            "TR", "TR", "TR", "TR", "TR", "TR", "TR", "MW", "M", "T", "W", "R"};
+    static final String[] PATTERN_START = {"8:00 AM", "9:00 AM", "10:00 AM", "11:00 AM", "12:00 PM", "1:00 PM",
+            "2:00 PM", "3:00 PM", "8:00 AM", "9:30 AM", "11:00 AM", "12:30 PM", "2:00 PM", "3:30 PM", "5:00 PM",
+            "4:00 PM", "7:00 PM", "7:00 PM", "7:00 PM", "7:00 PM"};
+    static final String[] PATTERN_END = {"8:50 AM", "9:50 AM", "10:50 AM", "11:50 AM", "12:50 PM", "1:50 PM",
+            "2:50 PM", "3:50 PM", "9:15 AM", "10:45 AM", "12:15 PM", "1:45 PM", "3:15 PM", "4:45 PM", "6:15 PM",
+            "5:15 PM", "9:45 PM", "9:45 PM", "9:45 PM", "9:45 PM"};
+    private static final double ROOM_PENALTY = 1000; //the cost of booking two sections in one room at once.
+    private static final double START_TEMPERATURE = 2.0;
+    private static final double END_TEMPERATURE = 0.01;
+
+    private Catalog catalog;
+    private ArrayList<Section> sections = new ArrayList<>(); //stores the sections that need meeting times.
+    private ArrayList<Section> fixed = new ArrayList<>(); //stores the sections that keep their listed meetings.
+    private ArrayList<String> rooms = new ArrayList<>();
+    private int[] initialRooms; //stores the room each section is listed in by the catalog.
+    private int[][] overlapping; //stores, for each pattern, the patterns meeting at the same time.
+    private boolean[][] overlaps; //stores whether two patterns meet at the same time.
+    private int[][] neighbors; //stores, for each section, the sections requested by the same students.
+    private double[][] weights; //stores how many students request each pair of neighboring sections.
+    private boolean[][] fixedOverlaps; //stores, for each fixed section, whether it meets at the same time as each pattern.
+    private int[][] fixedUse; //stores how many fixed sections use each room at the same time as each pattern.
+    private int[][] fixedNeighbors; //stores, for each section, the fixed sections requested by the same students.
+    private double[][] fixedWeights; //stores how many students request each section and fixed neighbor.
+    private double fixedConflicts; //stores the students with two fixed sections at the same time.
+    private int fixedBookings; //stores how many pairs of fixed sections share a room at the same time.
+
+
+    /**
+     * Constructs a Timetabler.
+     * @param catalog the catalog of sections to assign.
+     * @param requests the request files of each student.
+     * @throws FileNotFoundException if a request file cannot be found.
+     * @throws IllegalFileFormatException if a request file has improper formatting.
+     */
+    Timetabler(Catalog catalog, ArrayList<String> requests) throws FileNotFoundException, IllegalFileFormatException {
+        this.catalog = catalog;
+        HashMap<String, Integer> roomNumbers = new HashMap<>();
+        ArrayList<Integer> listedRooms = new ArrayList<>();
+
+        //online, TBA and fixed sections keep their listing.
+        for(Section section : catalog.getSections()){
+            if(section.isUnscheduled()){
+                continue;
+            }
+            else if(isFixed(section)){
+                for(Course meeting : section.getMeetings()){
+                    String room = meeting.getLocation();
+                    if(!roomNumbers.containsKey(room)){
+                        roomNumbers.put(room, rooms.size());
+                        rooms.add(room);
+                    }
+                }
+                fixed.add(section);
+                continue;
+            }
+
+            String room = section.getMeetings().get(0).getLocation();
+            if(!roomNumbers.containsKey(room)){
+                roomNumbers.put(room, rooms.size());
+                rooms.add(room);
+            }
+            listedRooms.add(roomNumbers.get(room));
+            sections.add(section);
+        }
+
+        initialRooms = new int[sections.size()];
+        for(int i = 0; i < initialRooms.length; i++){
+            initialRooms[i] = listedRooms.get(i);
+        }
+
+        findOverlappingPatterns();
+        placeFixedSections(roomNumbers);
+        aggregateDemand(requests);
+    }
+
+
+    /**
+     * This helper method determines if a section must keep its listed meetings. A pattern
+     * only describes one meeting time in one room, so sections with several meeting times,
+     * rooms or a date range are left as listed instead of losing their other meetings.
+     * @param section the section in question.
+     * @return whether the section has more than one meeting time or room, or a date range.
+     */
+    private boolean isFixed(Section section){
+        Course first = section.getMeetings().get(0);
+        for(Course meeting : section.getMeetings()){
+            if(meeting.getStartDate() != null || !meeting.getStartTime().equals(first.getStartTime())
+                    || !meeting.getEndTime().equals(first.getEndTime())
+                    || !meeting.getLocation().equals(first.getLocation())){
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * This helper method determines which patterns meet at the same time. Two patterns
+     * overlap if they share a week day and either one conflicts with the other
+     * according to Course.conflictsWith.
+     */
+    private void findOverlappingPatterns(){
+        int patterns = PATTERN_DAYS.length;
+        overlaps = new boolean[patterns][patterns];
+        overlapping = new int[patterns][];
+
+        for(int p = 0; p < patterns; p++){
+            ArrayList<Integer> found = new ArrayList<>();
+
+            for(int q = 0; q < patterns; q++){
+                Course first = new Course(PATTERN_START[p], PATTERN_END[p]);
+                Course second = new Course(PATTERN_START[q], PATTERN_END[q]);
+                overlaps[p][q] = sharesDay(PATTERN_DAYS[p], PATTERN_DAYS[q])
+                        && (first.conflictsWith(second) || second.conflictsWith(first));
+
+                if(overlaps[p][q]){
+                    found.add(q);
+                }
+            }
+
+            overlapping[p] = new int[found.size()];
+            for(int i = 0; i < found.size(); i++){
+                overlapping[p][i] = found.get(i);
+            }
+        }
+    }
+
+
+    /**
+     * This helper method finds the patterns each fixed section meets at the same time as,
+     * and how many fixed sections use each room during each pattern. Pairs of fixed sections
+     * booked in the same room at once cannot be moved apart, so they are only counted.
+     * @param roomNumbers the number of each room.
+     */
+    private void placeFixedSections(HashMap<String, Integer> roomNumbers){
+        int patterns = PATTERN_DAYS.length;
+        fixedOverlaps = new boolean[fixed.size()][patterns];
+        fixedUse = new int[rooms.size()][patterns];
+
+        Course[] patternTimes = new Course[patterns];
+        for(int p = 0; p < patterns; p++){
+            patternTimes[p] = new Course(PATTERN_START[p], PATTERN_END[p]);
+        }
+
+        for(int f = 0; f < fixed.size(); f++){
+            boolean[][] used = new boolean[rooms.size()][];
+            for(Course meeting : fixed.get(f).getMeetings()){
+                int day = Schedule.dayNumber(meeting.getDay());
+                int room = roomNumbers.get(meeting.getLocation());
+
+                for(int p = 0; day >= 0 && p < patterns; p++){
+                    if(PATTERN_DAYS[p].indexOf(SectionStore.WEEK_DAY_LETTERS.charAt(day)) >= 0
+                            && (meeting.conflictsWith(patternTimes[p]) || patternTimes[p].conflictsWith(meeting))){
+                        fixedOverlaps[f][p] = true;
+                        if(used[room] == null){
+                            used[room] = new boolean[patterns];
+                        }
+                        used[room][p] = true;
+                    }
+                }
+            }
+
+            //counts the section once in each room and pattern, however many of its meetings overlap it.
+            for(int room = 0; room < used.length; room++){
+                for(int p = 0; used[room] != null && p < patterns; p++){
+                    if(used[room][p]){
+                        fixedUse[room][p]++;
+                    }
+                }
+            }
+
+            for(int g = 0; g < f; g++){
+                if(meetTogether(fixed.get(f), fixed.get(g), true)){
+                    fixedBookings++;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * This helper method determines if two sections meet at the same time.
+     * @param first the first section.
+     * @param second the second section.
+     * @param sameRoom whether the meetings must also be in the same room.
+     * @return whether a meeting of each section is on the same day at the same time.
+     */
+    private boolean meetTogether(Section first, Section second, boolean sameRoom){
+        for(Course meeting : first.getMeetings()){
+            for(Course other : second.getMeetings()){
+                if(meeting.getDay().equals(other.getDay()) && Schedule.dayNumber(meeting.getDay()) >= 0
+                        && (!sameRoom || meeting.getLocation().equals(other.getLocation()))
+                        && (meeting.conflictsWith(other) || other.conflictsWith(meeting))){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * This helper method determines if two sets of meeting days have a day in common.
+     * @param days the first meeting days, such as "MWF".
+     * @param otherDays the second meeting days.
+     * @return whether a week day appears in both.
+     */
+    private boolean sharesDay(String days, String otherDays){
+        for(int i = 0; i < days.length(); i++){
+            if(otherDays.indexOf(days.charAt(i)) >= 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * This helper method counts how many students request each pair of courses,
+     * and spreads each count evenly across the sections of both courses. Fixed
+     * sections are numbered after the sections that need meeting times.
+     * @param requests the request files of each student.
+     * @throws FileNotFoundException if a request file cannot be found.
+     * @throws IllegalFileFormatException if a request file has improper formatting.
+     */
+    private void aggregateDemand(ArrayList<String> requests) throws FileNotFoundException, IllegalFileFormatException {
+        int count = sections.size();
+        HashMap<String, ArrayList<Integer>> sectionsByName = new HashMap<>();
+        for(int i = 0; i < count; i++){
+            sectionsByName.computeIfAbsent(sections.get(i).getName(), k -> new ArrayList<>()).add(i);
+        }
+        for(int f = 0; f < fixed.size(); f++){
+            sectionsByName.computeIfAbsent(fixed.get(f).getName(), k -> new ArrayList<>()).add(count + f);
+        }
+
+        //counts the students requesting each pair of courses.
+        HashMap<String, Integer> pairs = new HashMap<>();
+        for(String file : requests){
+            ArrayList<String> names = new ArrayList<>();
+            for(Section request : new Catalog(file).getSections()){
+                if(sectionsByName.containsKey(request.getName()) && !names.contains(request.getName())){
+                    names.add(request.getName());
+                }
+            }
+
+            for(int i = 0; i < names.size(); i++){
+                for(int j = i + 1; j < names.size(); j++){
+                    String first = names.get(i);
+                    String second = names.get(j);
+                    String pair = first.compareTo(second) < 0 ? first + "\n" + second : second + "\n" + first;
+                    pairs.merge(pair, 1, Integer::sum);
+                }
+            }
+        }
+
+        ArrayList<ArrayList<Integer>> foundNeighbors = new ArrayList<>();
+        ArrayList<ArrayList<Double>> foundWeights = new ArrayList<>();
+        ArrayList<ArrayList<Integer>> foundFixed = new ArrayList<>();
+        ArrayList<ArrayList<Double>> foundFixedWeights = new ArrayList<>();
+        for(int i = 0; i < count; i++){
+            foundNeighbors.add(new ArrayList<>());
+            foundWeights.add(new ArrayList<>());
+            foundFixed.add(new ArrayList<>());
+            foundFixedWeights.add(new ArrayList<>());
+        }
+
+        for(String pair : pairs.keySet()){
+            String[] names = pair.split("\n");
+            ArrayList<Integer> first = sectionsByName.get(names[0]);
+            ArrayList<Integer> second = sectionsByName.get(names[1]);
+            double weight = pairs.get(pair) / (double) (first.size() * second.size());
+
+            for(int i : first){
+                for(int j : second){
+                    if(i < count && j < count){
+                        foundNeighbors.get(i).add(j);
+                        foundWeights.get(i).add(weight);
+                        foundNeighbors.get(j).add(i);
+                        foundWeights.get(j).add(weight);
+                    }
+                    else if(i < count){
+                        foundFixed.get(i).add(j - count);
+                        foundFixedWeights.get(i).add(weight);
+                    }
+                    else if(j < count){
+                        foundFixed.get(j).add(i - count);
+                        foundFixedWeights.get(j).add(weight);
+                    }
+                    //two fixed sections always conflict or never do.
+                    else if(meetTogether(fixed.get(i - count), fixed.get(j - count), false)){
+                        fixedConflicts += weight;
+                    }
+                }
+            }
+        }
+
+        neighbors = new int[count][];
+        weights = new double[count][];
+        fixedNeighbors = new int[count][];
+        fixedWeights = new double[count][];
+        for(int i = 0; i < count; i++){
+            neighbors[i] = new int[foundNeighbors.get(i).size()];
+            weights[i] = new double[foundNeighbors.get(i).size()];
+            for(int j = 0; j < neighbors[i].length; j++){
+                neighbors[i][j] = foundNeighbors.get(i).get(j);
+                weights[i][j] = foundWeights.get(i).get(j);
+            }
+
+            fixedNeighbors[i] = new int[foundFixed.get(i).size()];
+            fixedWeights[i] = new double[foundFixed.get(i).size()];
+            for(int j = 0; j < fixedNeighbors[i].length; j++){
+                fixedNeighbors[i][j] = foundFixed.get(i).get(j);
+                fixedWeights[i][j] = foundFixedWeights.get(i).get(j);
+            }
+        }
+    }
+
+
+    /**
+     * Searches for the timetable with the fewest student conflicts.
+     * @param threads the number of searches to run at once.
+     * @param iterations the number of moves each search attempts.
+     * @param seed the seed of the first search. Each search uses the next seed.
+     * @return the best timetable found.
+     * @throws InterruptedException if the search is interrupted.
+     */
+    Timetable solve(int threads, long iterations, long seed) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<Timetable>> searches = new ArrayList<>();
+
+        for(int i = 0; i < threads; i++){
+            long searchSeed = seed + i;
+            searches.add(pool.submit(() -> search(iterations, searchSeed)));
+        }
+
+        Timetable best = null;
+        try{
+            for(Future<Timetable> search : searches){
+                Timetable found = search.get();
+                if(best == null || found.cost < best.cost){
+                    best = found;
+                }
+            }
+        }
+        catch(ExecutionException e){
+            throw new IllegalStateException(e.getCause());
+        }
+        finally{
+            pool.shutdown();
+        }
+
+        return best;
+    }
+
+
+    /**
+     * This helper method runs one simulated annealing search. Each move gives a random
+     * section a new pattern, and sometimes a new room, and is accepted based on the change
+     * in cost it causes.
+     * @param iterations the number of moves to attempt.
+     * @param seed the seed for the random moves.
+     * @return the best timetable found by the search.
+     */
+    private Timetable search(long iterations, long seed){
+        Random random = new Random(seed);
+        int count = sections.size();
+        int patterns = PATTERN_DAYS.length;
+        int[] pattern = new int[count];
+        int[] room = initialRooms.clone();
+        int[][] roomUse = new int[rooms.size()][patterns]; //stores how many sections use each room in each pattern.
+
+        for(int i = 0; i < count; i++){
+            pattern[i] = random.nextInt(patterns);
+            roomUse[room[i]][pattern[i]]++;
+        }
+
+        Timetable best = evaluate(pattern.clone(), room.clone());
+        double cost = best.cost;
+
+        if(count == 0){
+            return best;
+        }
+
+        double cooling = Math.pow(END_TEMPERATURE / START_TEMPERATURE, 1.0 / Math.max(1, iterations));
+        double temperature = START_TEMPERATURE;
+
+        for(long move = 0; move < iterations; move++){
+            int section = random.nextInt(count);
+            int oldPattern = pattern[section];
+            int oldRoom = room[section];
+            int newPattern = random.nextInt(patterns);
+            int newRoom = random.nextDouble() < 0.3 ? random.nextInt(rooms.size()) : oldRoom;
+
+            if(newPattern != oldPattern || newRoom != oldRoom){
+                double delta = 0;
+
+                //the change in students with conflicting sections.
+                int[] sectionNeighbors = neighbors[section];
+                double[] sectionWeights = weights[section];
+                for(int j = 0; j < sectionNeighbors.length; j++){
+                    int other = pattern[sectionNeighbors[j]];
+                    if(overlaps[newPattern][other]){
+                        delta += sectionWeights[j];
+                    }
+                    if(overlaps[oldPattern][other]){
+                        delta -= sectionWeights[j];
+                    }
+                }
+                int[] sectionFixed = fixedNeighbors[section];
+                for(int j = 0; j < sectionFixed.length; j++){
+                    if(fixedOverlaps[sectionFixed[j]][newPattern]){
+                        delta += fixedWeights[section][j];
+                    }
+                    if(fixedOverlaps[sectionFixed[j]][oldPattern]){
+                        delta -= fixedWeights[section][j];
+                    }
+                }
+
+                //the change in double bookings, not counting the section itself.
+                roomUse[oldRoom][oldPattern]--;
+                delta += ROOM_PENALTY * (bookings(roomUse[newRoom], newPattern) - bookings(roomUse[oldRoom], oldPattern)
+                        + fixedUse[newRoom][newPattern] - fixedUse[oldRoom][oldPattern]);
+
+                if(delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)){
+                    pattern[section] = newPattern;
+                    room[section] = newRoom;
+                    roomUse[newRoom][newPattern]++;
+                    cost += delta;
+                }
+                else{
+                    roomUse[oldRoom][oldPattern]++;
+                }
+            }
+
+            //keeps the best timetable, checking once for every pass over the sections.
+            if(move % count == count - 1 && cost < best.cost){
+                best = new Timetable(pattern.clone(), room.clone(), cost);
+            }
+            temperature *= cooling;
+        }
+
+        if(cost < best.cost){
+            best = new Timetable(pattern, room, cost);
+        }
+
+        //recomputes the cost to remove rounding errors from the running total.
+        return evaluate(best.pattern, best.room);
+    }
+
+
+    /**
+     * This helper method counts the sections in a room that meet at the same time as a pattern.
+     * @param use how many sections use the room in each pattern.
+     * @param pattern the pattern in question.
+     * @return the number of sections the pattern would double book.
+     */
+    private int bookings(int[] use, int pattern){
+        int count = 0;
+        for(int other : overlapping[pattern]){
+            count += use[other];
+        }
+        return count;
+    }
+
+
+    /**
+     * This helper method calculates the conflicts and double bookings of a timetable from scratch,
+     * including those with and between fixed sections.
+     * @param pattern the pattern of each section.
+     * @param room the room of each section.
+     * @return the timetable, with its cost.
+     */
+    private Timetable evaluate(int[] pattern, int[] room){
+        Timetable timetable = new Timetable(pattern, room, 0);
+        int[][] roomUse = new int[rooms.size()][PATTERN_DAYS.length];
+        timetable.conflicts = fixedConflicts;
+        timetable.bookings = fixedBookings;
+
+        for(int i = 0; i < pattern.length; i++){
+            for(int j = 0; j < neighbors[i].length; j++){
+                if(neighbors[i][j] > i && overlaps[pattern[i]][pattern[neighbors[i][j]]]){
+                    timetable.conflicts += weights[i][j];
+                }
+            }
+            for(int j = 0; j < fixedNeighbors[i].length; j++){
+                if(fixedOverlaps[fixedNeighbors[i][j]][pattern[i]]){
+                    timetable.conflicts += fixedWeights[i][j];
+                }
+            }
+
+            timetable.bookings += bookings(roomUse[room[i]], pattern[i]) + fixedUse[room[i]][pattern[i]];
+            roomUse[room[i]][pattern[i]]++;
+        }
+
+        timetable.cost = timetable.conflicts + ROOM_PENALTY * timetable.bookings;
+        return timetable;
+    }
+
+
+    /**
+     * Writes the catalog with the meeting patterns and rooms of a timetable.
+     * Online, TBA and fixed sections are written unchanged.
+     * @param timetable the timetable to write.
+     * @param file the .csv file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Timetable timetable, String file) throws IOException {
+        HashMap<Section, Integer> positions = new HashMap<>();
+        for(int i = 0; i < sections.size(); i++){
+            positions.put(sections.get(i), i);
+        }
+
+        BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        for(Section section : catalog.getSections()){
+            Integer i = positions.get(section);
+
+            if(i == null){
+                writer.write(section.getLine());
+            }
+            else{
+                int p = timetable.pattern[i];
+                writer.write(section.getName() + ", " + section.getTitle() + ", " + section.getCredits() + ", "
+                        + rooms.get(timetable.room[i]) + ", " + PATTERN_DAYS[p] + ", "
+                        + PATTERN_START[p] + " - " + PATTERN_END[p]);
+            }
+            writer.newLine();
+        }
+        writer.close();
+    }
+
+
+    /**
+     * This class stores the meeting pattern and room assigned to each section.
+     */
+    static class Timetable {
+        int[] pattern;
+        int[] room;
+        double cost;
+        double conflicts; //stores the expected number of students with two requested courses at the same time.
+        int bookings; //stores how many pairs of sections share a room at the same time.
+
+        Timetable(int[] pattern, int[] room, double cost){
+            this.pattern = pattern;
+            this.room = room;
+            this.cost = cost;
+        }
+
+        double getStudentConflicts(){ return conflicts; }
+
+        int getDoubleBookings(){ return bookings; }
+    }
+
+
+    /**
+     * Builds a timetable from the command line arguments:
+     * the catalog file, the directory of request files, the output file,
+     * and optionally the number of threads, moves per thread and seed.
+     */
+    public static void main(String args[]){
+        try{
+            ArrayList<String> requests = new ArrayList<>();
+            HashSet<String> skipped = new HashSet<>();
+            skipped.add(new File(args[0]).getCanonicalPath());
+            skipped.add(new File(args[2]).getCanonicalPath());
+
+            File[] files = new File(args[1]).listFiles();
+            if(files == null){
+                throw new FileNotFoundException(args[1] + " is not a directory.");
+            }
+            for(File file : files){
+                if(file.getName().endsWith(".csv") && !skipped.contains(file.getCanonicalPath())){
+                    requests.add(file.getPath());
+                }
+            }
+
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            long iterations = args.length > 4 ? Long.parseLong(args[4]) : 10000000L;
+            long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+            Timetabler timetabler = new Timetabler(new Catalog(args[0]), requests);
+            Timetable timetable = timetabler.solve(threads, iterations, seed);
+            timetabler.write(timetable, args[2]);
+
+            System.out.println("Student conflicts: " + String.format("%.2f", timetable.getStudentConflicts()));
+            System.out.println("Double bookings: " + timetable.getDoubleBookings());
+        }
+        catch(IllegalFileFormatException e){
+            System.out.println(e.getMessage());
+            System.exit(22);
+        }
+        catch(IOException e){
+            e.printStackTrace();
+            System.exit(74);
+        }
+        catch(InterruptedException e){
+            System.exit(1);
+        }
+    }
+}